@@ -0,0 +1,177 @@
+package com.demo.addressbook.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.addressbook.AddressBookApplication;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.AddressBook;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactService;
+
+// Hot paths of AddressBookService and ContactService against an H2 database seeded with
+// `contacts` contacts spread evenly over ADDRESS_BOOKS address books. The Spring cache is disabled
+// so that every call reaches the database. `allocationSize` compares insert throughput with one
+// sequence call per id against pooled-lo allocation.
+//
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="AddressBookServiceBenchmark -p contacts=1000 -p allocationSize=1,50"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class AddressBookServiceBenchmark {
+
+	static final int ADDRESS_BOOKS = 10;
+	static final int IMPORT_CHUNK_SIZE = 10_000;
+
+	@Param({ "1000", "100000", "1000000" })
+	int contacts;
+
+	@Param({ "1", "50" })
+	int allocationSize;
+
+	ConfigurableApplicationContext context;
+	AddressBookService addressBookService;
+	ContactService contactService;
+	List<String> addressBookIds = new ArrayList<>();
+	String scratchAddressBookId;
+	long[] contactIds;
+	final AtomicLong sequence = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void seed() {
+		// Command line arguments, so that they win over application.properties
+		context = new SpringApplicationBuilder(AddressBookApplication.class).web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1",
+						"--addressbook.id.allocation-size=" + allocationSize, "--spring.jpa.show-sql=false",
+						"--spring.cache.type=none", "--logging.level.root=WARN");
+		addressBookService = context.getBean(AddressBookService.class);
+		contactService = context.getBean(ContactService.class);
+
+		for (int b = 0; b < ADDRESS_BOOKS; b++) {
+			addressBookIds.add(String.valueOf(addressBookService.addAddressBook("Seed" + b).getAddressBookId()));
+		}
+		scratchAddressBookId = String.valueOf(addressBookService.addAddressBook("Scratch").getAddressBookId());
+
+		// Chunked per address book, so that every book holds contacts / ADDRESS_BOOKS contacts
+		int perAddressBook = contacts / ADDRESS_BOOKS;
+		List<ContactDto> rows = new ArrayList<>(IMPORT_CHUNK_SIZE);
+		for (int b = 0; b < ADDRESS_BOOKS; b++) {
+			for (int i = 0; i < perAddressBook; i++) {
+				int n = b * perAddressBook + i;
+				rows.add(new ContactDto(null, "Seed" + n, "Contact", null, null, String.format("+61 %09d", n)));
+				if (rows.size() == IMPORT_CHUNK_SIZE || i == perAddressBook - 1) {
+					addressBookService.importContacts(addressBookIds.get(b), rows);
+					rows.clear();
+				}
+			}
+		}
+
+		List<Long> ids = new ArrayList<>(contacts);
+		contactService.exportAllContacts(contact -> ids.add(contact.contactId()));
+		contactIds = ids.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		context.close();
+	}
+
+	@Benchmark
+	public AddressBook addAddressBook() {
+		return addressBookService.addAddressBook("Bench" + sequence.incrementAndGet());
+	}
+
+	@Benchmark
+	public String addContact() {
+		long n = sequence.incrementAndGet();
+		return addressBookService.addContact(addressBookIds.get((int) (n % ADDRESS_BOOKS)),
+				new ContactDto(null, "Bench" + n, "Added", null, null, "+61 000 000 000"));
+	}
+
+	@Benchmark
+	public String addExistingContact(UnlinkedContact unlinked) {
+		return addressBookService.addExistingContact(scratchAddressBookId, String.valueOf(unlinked.contactId));
+	}
+
+	// The first seeded book, holding contacts / ADDRESS_BOOKS contacts
+	@Benchmark
+	public Set<Contact> findAllContactsByAddressBookId() {
+		return addressBookService.findAllContactsByAddressBookId(addressBookIds.get(0));
+	}
+
+	@Benchmark
+	public String removeContactByAddressBookId(LinkedContact linked) {
+		return addressBookService.removeContactByAddressBookId(scratchAddressBookId,
+				new ContactDto(linked.contactId, null, null, null, null, null));
+	}
+
+	@Benchmark
+	public void getAllUniqueContacts(Blackhole blackhole) {
+		blackhole.consume(contactService.getAllUniqueContacts());
+	}
+
+	@Benchmark
+	public long exportAllContacts(Blackhole blackhole) {
+		return contactService.exportAllContacts(blackhole::consume);
+	}
+
+	long randomContactId() {
+		return contactIds[ThreadLocalRandom.current().nextInt(contactIds.length)];
+	}
+
+	// Links a seeded contact to the scratch book before each removal so that it is never orphaned
+	@State(Scope.Thread)
+	public static class LinkedContact {
+		long contactId;
+
+		@Setup(Level.Invocation)
+		public void link(AddressBookServiceBenchmark benchmark) {
+			contactId = benchmark.randomContactId();
+			benchmark.addressBookService.addExistingContact(benchmark.scratchAddressBookId, String.valueOf(contactId));
+		}
+	}
+
+	// Unlinks the contact from the scratch book again after each link, so that every invocation inserts a
+	// join row instead of finding the contact already linked. It stays in its seed book, so it is not orphaned.
+	@State(Scope.Thread)
+	public static class UnlinkedContact {
+		long contactId;
+
+		@Setup(Level.Invocation)
+		public void pick(AddressBookServiceBenchmark benchmark) {
+			contactId = benchmark.randomContactId();
+		}
+
+		@TearDown(Level.Invocation)
+		public void unlink(AddressBookServiceBenchmark benchmark) {
+			benchmark.addressBookService.removeContactByAddressBookId(benchmark.scratchAddressBookId,
+					new ContactDto(contactId, null, null, null, null, null));
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.demo.addressbook.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.search.ContactSearchIndex;
+
+// Search latency of the in-process contact index, without the database round-trip that loads the matches.
+// The target is under 5 ms per query at 1M contacts, so the scores are reported in microseconds.
+//
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="ContactSearchIndexBenchmark -p contacts=1000000"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx8g" })
+public class ContactSearchIndexBenchmark {
+
+	static final int LIMIT = 20;
+	static final String SYLLABLES = "ba ca da el fa ge ha in jo ka li ma ne or pa qu ri sa ta ul va wi xe yo za";
+
+	@Param({ "1000", "100000", "1000000" })
+	int contacts;
+
+	ContactSearchIndex index;
+	String firstName;
+	String lastName;
+
+	// Pseudo names built from syllables, so that first names repeat often and last names rarely
+	@Setup(Level.Trial)
+	public void seed() {
+		Random random = new Random(42);
+		List<String> syllables = List.of(SYLLABLES.split(" "));
+		String[] firstNames = names(random, syllables, 2_000, 2);
+		String[] lastNames = names(random, syllables, 200_000, 4);
+		String[] orgs = names(random, syllables, 1_000, 3);
+
+		index = new ContactSearchIndex();
+		for (int i = 0; i < contacts; i++) {
+			String first = firstNames[random.nextInt(firstNames.length)];
+			String last = lastNames[random.nextInt(lastNames.length)];
+			if (i == 0) {
+				firstName = first;
+				lastName = last;
+			}
+			String org = orgs[random.nextInt(orgs.length)];
+			index.add(new ContactDto((long) i, first, last, org, first + "." + last + "@" + org + ".com",
+					String.format("+61 %03d %03d %03d", i / 1_000_000, i / 1_000 % 1_000, i % 1_000)));
+		}
+	}
+
+	private static String[] names(Random random, List<String> syllables, int count, int length) {
+		String[] names = new String[count];
+		for (int n = 0; n < count; n++) {
+			StringBuilder name = new StringBuilder();
+			for (int s = 0; s < length; s++) {
+				name.append(syllables.get(random.nextInt(syllables.size())));
+			}
+			names[n] = name.toString();
+		}
+		return names;
+	}
+
+	@Benchmark
+	public List<Long> shortPrefix() {
+		return index.search(firstName.substring(0, 2), false, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> fullName() {
+		return index.search(firstName + " " + lastName, false, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> lastNamePrefix() {
+		return index.search(lastName.substring(0, 5), false, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> fuzzyLastName() {
+		// Drop one character to simulate a typo
+		return index.search(lastName.substring(0, 3) + lastName.substring(4), true, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> contactNumberPrefix() {
+		return index.search("+61 000 12", false, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> noMatchFuzzy() {
+		return index.search("zzzzzzzz", true, LIMIT);
+	}
+}
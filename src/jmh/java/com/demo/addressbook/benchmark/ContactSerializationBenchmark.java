@@ -0,0 +1,93 @@
+package com.demo.addressbook.benchmark;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.demo.addressbook.controller.ContactJsonWriter;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.Contact;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+// Response body cost of the v1 toString() concatenation against the v2 streamed JSON array,
+// both encoded to UTF-8 bytes as they would be on the wire. No database is involved.
+//
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="ContactSerializationBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ContactSerializationBenchmark {
+
+	@Param({ "100", "10000" })
+	int contacts;
+
+	Set<Contact> entities;
+	List<ContactDto> dtos;
+	ObjectMapper objectMapper;
+
+	@Setup(Level.Trial)
+	public void seed() {
+		entities = new HashSet<>();
+		dtos = new ArrayList<>();
+		for (int i = 0; i < contacts; i++) {
+			entities.add(new Contact("First" + i, "Last" + i, "Org" + i, "first" + i + "@example.com", "+61 000 " + i));
+			dtos.add(new ContactDto((long) i, "First" + i, "Last" + i, "Org" + i, "first" + i + "@example.com", "+61 000 " + i));
+		}
+		objectMapper = JsonMapper.builder().build();
+	}
+
+	@Benchmark
+	public void v1StringConcatenation(Blackhole blackhole) {
+		String response = "Contacts for addressBookId: " + entities;
+		blackhole.consume(response.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public void v2StreamedJson(Blackhole blackhole) {
+		ContactJsonWriter writer = new ContactJsonWriter(objectMapper, new BlackholeOutputStream(blackhole));
+		dtos.forEach(writer::write);
+		writer.finish();
+	}
+
+	static final class BlackholeOutputStream extends OutputStream {
+		private final Blackhole blackhole;
+
+		BlackholeOutputStream(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void write(int b) {
+			blackhole.consume(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			blackhole.consume(b);
+			blackhole.consume(len);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.demo.addressbook.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import com.demo.addressbook.exception.AddressBookException;
+import com.demo.addressbook.exception.GlobalExceptionHandler;
+import com.demo.addressbook.exception.InputValidationException;
+
+// Throughput of the error path from throw to problem detail, without the HTTP layer. The exception is thrown
+// through a few frames so that filling in a stack trace has a realistic depth to walk.
+//
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="ErrorResponseBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+	static final int DEPTH = 40;
+
+	GlobalExceptionHandler debugHandler = new GlobalExceptionHandler(true);
+	GlobalExceptionHandler handler = new GlobalExceptionHandler(false);
+
+	// What every validation failure cost before: a fresh stack trace rendered into the body
+	@Benchmark
+	public ResponseEntity<ProblemDetail> stackTraceRendered() {
+		try {
+			throwFrom(DEPTH, () -> new AddressBookException("Address Book not found"));
+		} catch (AddressBookException ex) {
+			return debugHandler.handleGenericException(ex);
+		}
+		return null;
+	}
+
+	@Benchmark
+	public ResponseEntity<ProblemDetail> stacklessNewInstance() {
+		try {
+			throwFrom(DEPTH, () -> new InputValidationException("Address Book not found"));
+		} catch (InputValidationException ex) {
+			return handler.handleException(ex);
+		}
+		return null;
+	}
+
+	@Benchmark
+	public ResponseEntity<ProblemDetail> preallocated() {
+		try {
+			throwFrom(DEPTH, () -> InputValidationException.ADDRESS_BOOK_NOT_FOUND);
+		} catch (InputValidationException ex) {
+			return handler.handleException(ex);
+		}
+		return null;
+	}
+
+	interface ExceptionFactory {
+		RuntimeException create();
+	}
+
+	static void throwFrom(int depth, ExceptionFactory factory) {
+		if (depth == 0) {
+			throw factory.create();
+		}
+		throwFrom(depth - 1, factory);
+	}
+}
@@ -0,0 +1,89 @@
+package com.demo.addressbook.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.addressbook.AddressBookApplication;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.service.AddressBookService;
+
+// Write throughput under contention: every thread adds new contacts to, or links its own contact into,
+// the same address book. Compare with -t 1 to see the cost of contention.
+//
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="HotAddressBookBenchmark -t 16"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+@Threads(16)
+public class HotAddressBookBenchmark {
+
+	ConfigurableApplicationContext context;
+	AddressBookService addressBookService;
+	String hotAddressBookId;
+	String sourceAddressBookId;
+	final AtomicLong sequence = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void start() {
+		// Command line arguments, so that they win over application.properties
+		context = new SpringApplicationBuilder(AddressBookApplication.class).web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:hotbook;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1",
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+		addressBookService = context.getBean(AddressBookService.class);
+		hotAddressBookId = String.valueOf(addressBookService.addAddressBook("Hot").getAddressBookId());
+		sourceAddressBookId = String.valueOf(addressBookService.addAddressBook("Source").getAddressBookId());
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		context.close();
+	}
+
+	@Benchmark
+	public String addContact() {
+		long n = sequence.incrementAndGet();
+		return addressBookService.addContact(hotAddressBookId,
+				new ContactDto(null, "Hot" + n, "Writer", null, null, "+61 400 000 000"));
+	}
+
+	@Benchmark
+	public String addExistingContact(OwnContact own) {
+		return addressBookService.addExistingContact(hotAddressBookId, own.contactId);
+	}
+
+	// A contact per thread, created in another address book and linked into the hot one on every invocation
+	@State(Scope.Thread)
+	public static class OwnContact {
+		String contactId;
+
+		@Setup(Level.Trial)
+		public void create(HotAddressBookBenchmark benchmark) {
+			long n = benchmark.sequence.incrementAndGet();
+			benchmark.addressBookService.addContact(benchmark.sourceAddressBookId,
+					new ContactDto(null, "Own" + n, "Linker", null, null, "+61 400 000 000"));
+			contactId = String.valueOf(benchmark.addressBookService
+					.findContactsByAddressBookIdAfter(benchmark.sourceAddressBookId, 0, 1000).stream()
+					.filter(contact -> contact.getFirstName().equals("Own" + n)).findFirst().orElseThrow().getContactId());
+		}
+	}
+}
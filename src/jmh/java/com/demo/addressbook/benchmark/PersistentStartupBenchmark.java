@@ -0,0 +1,83 @@
+package com.demo.addressbook.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.addressbook.AddressBookApplication;
+import com.demo.addressbook.service.InitialSetupService;
+
+// Time-to-ready of the persistent profile: from SpringApplication.run until the search index is loaded and
+// ApplicationReadyEvent listeners (contact number backfill) have finished, with `contacts` contacts
+// already in the file-backed H2 database. The database is generated once per trial in a temp directory.
+//
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="PersistentStartupBenchmark -p contacts=1000000"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class PersistentStartupBenchmark {
+
+	static final int ADDRESS_BOOKS = 100;
+
+	@Param({ "100000", "1000000" })
+	int contacts;
+
+	Path dataDir;
+	ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		dataDir = Files.createTempDirectory("addressbook-startup");
+		try (ConfigurableApplicationContext seeding = start()) {
+			seeding.getBean(InitialSetupService.class).generateAddressBookData(ADDRESS_BOOKS, contacts, 0.2, 42);
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void stop() {
+		context.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		try (Stream<Path> files = Files.walk(dataDir)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Benchmark
+	public ConfigurableApplicationContext startToReady() {
+		context = start();
+		return context;
+	}
+
+	ConfigurableApplicationContext start() {
+		// Command line arguments, so that they win over the profile's properties
+		return new SpringApplicationBuilder(AddressBookApplication.class).profiles("persistent")
+				.run("--addressbook.data-dir=" + dataDir.toAbsolutePath(), "--server.port=0", "--logging.level.root=WARN");
+	}
+}
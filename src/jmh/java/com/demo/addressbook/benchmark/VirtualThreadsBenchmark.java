@@ -0,0 +1,109 @@
+package com.demo.addressbook.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.addressbook.AddressBookApplication;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.service.AddressBookService;
+
+// Platform threads against the virtual-threads profile under more concurrent clients than the Tomcat pool
+// has threads (200 by default). Every request reads a page of contacts from the database, with the Spring
+// cache disabled. Throughput gives requests per second; SampleTime reports the latency percentiles, p0.99
+// among them. Both run against the same in-process server, so client and server share the CPU.
+//
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="VirtualThreadsBenchmark -t 400"
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+@Threads(400)
+public class VirtualThreadsBenchmark {
+
+	static final int ADDRESS_BOOKS = 10;
+	static final int CONTACTS = 100_000;
+	static final int IMPORT_CHUNK_SIZE = 10_000;
+	static final int PAGE_SIZE = 20;
+
+	// "default" runs the servlet on the Tomcat platform thread pool
+	@Param({ "default", "virtual-threads" })
+	String profile;
+
+	ConfigurableApplicationContext context;
+	HttpClient client;
+	List<String> addressBookIds = new ArrayList<>();
+	String baseUrl;
+
+	@Setup(Level.Trial)
+	public void start() {
+		// Overrides go in as command line arguments so that they win over application.properties
+		context = new SpringApplicationBuilder(AddressBookApplication.class).profiles(profile)
+				.run("--spring.datasource.url=jdbc:h2:mem:virtualthreads;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1",
+						"--server.port=0", "--spring.jpa.show-sql=false", "--spring.cache.type=none",
+						"--logging.level.root=WARN");
+		AddressBookService addressBookService = context.getBean(AddressBookService.class);
+		for (int b = 0; b < ADDRESS_BOOKS; b++) {
+			addressBookIds.add(String.valueOf(addressBookService.addAddressBook("Load" + b).getAddressBookId()));
+		}
+		// Chunked per address book, so that every page the requests ask for is full
+		int perAddressBook = CONTACTS / ADDRESS_BOOKS;
+		List<ContactDto> rows = new ArrayList<>(IMPORT_CHUNK_SIZE);
+		for (int b = 0; b < ADDRESS_BOOKS; b++) {
+			for (int i = 0; i < perAddressBook; i++) {
+				int n = b * perAddressBook + i;
+				rows.add(new ContactDto(null, "Load" + n, "Contact", null, null, String.format("+61 %09d", n)));
+				if (rows.size() == IMPORT_CHUNK_SIZE || i == perAddressBook - 1) {
+					addressBookService.importContacts(addressBookIds.get(b), rows);
+					rows.clear();
+				}
+			}
+		}
+		baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/v1/address-book/contacts/";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		client.close();
+		context.close();
+	}
+
+	@Benchmark
+	public int getContactsPage() throws IOException, InterruptedException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String addressBookId = addressBookIds.get(random.nextInt(ADDRESS_BOOKS));
+		int page = random.nextInt(CONTACTS / ADDRESS_BOOKS / PAGE_SIZE);
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + addressBookId + "?page=" + page + "&size=" + PAGE_SIZE)).build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.body());
+		}
+		return response.body().length();
+	}
+}
@@ -0,0 +1,126 @@
+package com.demo.addressbook.cluster;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.addressbook.search.ContactSearchIndex;
+import com.demo.addressbook.service.ContactService;
+
+// Change-notification channel between replicas that share one database. Each replica records the cache keys
+// it evicted and the contacts its committed transactions changed in the cluster_change table, and polls that
+// table for the changes of the other replicas to evict the same keys locally and re-index the same contacts.
+// A replica therefore serves another replica's write at most one poll interval after it committed.
+@Component
+@ConditionalOnProperty(name = "addressbook.cluster.enabled", havingValue = "true")
+public class ClusterChangeLog {
+
+	static final String CONTACT_CHANNEL = "contact";
+	static final String CACHE_CHANNEL_PREFIX = "cache:";
+	// Larger changes are sent as a single "reload everything" notification
+	static final int MAX_KEYS_PER_CHANGE = 1000;
+
+	private static final String INSERT_CHANGE = "insert into cluster_change (channel, entity_key, origin) values (?, ?, ?)";
+	// Ids are assigned at insert but become visible at commit, so a window of recent rows is re-read on every poll
+	private static final String SELECT_RECENT_CHANGES = "select id, channel, entity_key from cluster_change where origin <> ? and created_at > dateadd('MILLISECOND', -?, current_timestamp) order by id";
+	private static final String DELETE_EXPIRED_CHANGES = "delete from cluster_change where created_at < dateadd('MILLISECOND', -?, current_timestamp)";
+
+	final String nodeId = UUID.randomUUID().toString();
+	JdbcTemplate jdbcTemplate;
+	TransactionTemplate transactionTemplate;
+	CacheManager cacheManager;
+	ContactService contactService;
+	long lookbackMillis;
+	long retentionMillis;
+
+	// Ids of the rows in the current look-back window that were already applied; only touched by the poller
+	private final Set<Long> applied = new HashSet<>();
+
+	public ClusterChangeLog(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			CacheManager cacheManager, ContactSearchIndex searchIndex, ContactService contactService,
+			@Value("${addressbook.cluster.lookback:10000}") long lookbackMillis,
+			@Value("${addressbook.cluster.retention:60000}") long retentionMillis) {
+		this.jdbcTemplate = jdbcTemplate;
+		// Changes are published after the writing transaction completed, so they need a transaction of their own
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.cacheManager = cacheManager;
+		this.contactService = contactService;
+		this.lookbackMillis = lookbackMillis;
+		this.retentionMillis = retentionMillis;
+		searchIndex.addChangeListener(this::publishContacts);
+	}
+
+	// A null key stands for the whole cache
+	public void publishCacheEviction(String cacheName, Object key) {
+		publish(CACHE_CHANNEL_PREFIX + cacheName, key instanceof String ? List.of((String) key) : null);
+	}
+
+	void publishContacts(Set<Long> contactIds) {
+		if (!contactIds.isEmpty()) {
+			publish(CONTACT_CHANNEL, contactIds.size() > MAX_KEYS_PER_CHANGE ? null
+					: contactIds.stream().map(String::valueOf).toList());
+		}
+	}
+
+	private void publish(String channel, List<String> keys) {
+		List<Object[]> rows = new ArrayList<>();
+		if (keys == null) {
+			rows.add(new Object[] { channel, null, nodeId });
+		} else {
+			keys.forEach(key -> rows.add(new Object[] { channel, key, nodeId }));
+		}
+		transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_CHANGE, rows));
+	}
+
+	@Scheduled(fixedDelayString = "${addressbook.cluster.poll-interval:500}")
+	public void poll() {
+		List<Change> changes = jdbcTemplate.query(SELECT_RECENT_CHANGES,
+				(rs, rowNum) -> new Change(rs.getLong(1), rs.getString(2), rs.getString(3)), nodeId, lookbackMillis);
+		Set<Long> window = new HashSet<>();
+		for (Change change : changes) {
+			window.add(change.id());
+			if (applied.add(change.id())) {
+				apply(change);
+			}
+		}
+		applied.retainAll(window);
+		jdbcTemplate.update(DELETE_EXPIRED_CHANGES, retentionMillis);
+	}
+
+	private void apply(Change change) {
+		if (CONTACT_CHANNEL.equals(change.channel())) {
+			if (change.key() == null) {
+				contactService.rebuildSearchIndex();
+			} else {
+				contactService.reindexContact(Long.valueOf(change.key()));
+			}
+		} else if (change.channel().startsWith(CACHE_CHANNEL_PREFIX)) {
+			Cache cache = cacheManager.getCache(change.channel().substring(CACHE_CHANNEL_PREFIX.length()));
+			if (cache == null) {
+				return;
+			}
+			if (change.key() == null) {
+				cache.clear();
+			} else {
+				cache.evict(change.key());
+			}
+		}
+	}
+
+	private record Change(long id, String channel, String key) {
+	}
+}
@@ -0,0 +1,41 @@
+package com.demo.addressbook.cluster;
+
+import java.util.Collection;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Clustered mode, enabled by the clustered profile: replicas share one database and keep their local caches
+// and search index in step through the ClusterChangeLog
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "addressbook.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+	// @Cacheable and @CacheEvict resolve their caches through the change log, so evictions reach every replica.
+	// The CacheManager itself is left alone so that cache metrics keep working.
+	@Bean
+	CachingConfigurer clusterCachingConfigurer(CacheManager cacheManager, ClusterChangeLog changeLog) {
+		CacheResolver cacheResolver = new SimpleCacheResolver(cacheManager) {
+			@Override
+			public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+				return super.resolveCaches(context).stream()
+						.map(cache -> (Cache) new ClusterInvalidatingCache(cache, changeLog)).toList();
+			}
+		};
+		return new CachingConfigurer() {
+			@Override
+			public CacheResolver cacheResolver() {
+				return cacheResolver;
+			}
+		};
+	}
+}
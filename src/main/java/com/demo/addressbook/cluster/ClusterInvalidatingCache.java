@@ -0,0 +1,90 @@
+package com.demo.addressbook.cluster;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+
+// Cache decorator that also reports every eviction to the other replicas; reads and writes stay local
+class ClusterInvalidatingCache implements Cache {
+
+	private final Cache cache;
+	private final ClusterChangeLog changeLog;
+
+	ClusterInvalidatingCache(Cache cache, ClusterChangeLog changeLog) {
+		this.cache = cache;
+		this.changeLog = changeLog;
+	}
+
+	@Override
+	public String getName() {
+		return cache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return cache.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		return cache.get(key);
+	}
+
+	@Override
+	public <T> T get(Object key, Class<T> type) {
+		return cache.get(key, type);
+	}
+
+	@Override
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		return cache.get(key, valueLoader);
+	}
+
+	@Override
+	public CompletableFuture<?> retrieve(Object key) {
+		return cache.retrieve(key);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		return cache.retrieve(key, valueLoader);
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		cache.put(key, value);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		return cache.putIfAbsent(key, value);
+	}
+
+	@Override
+	public void evict(Object key) {
+		cache.evict(key);
+		changeLog.publishCacheEviction(getName(), key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean present = cache.evictIfPresent(key);
+		changeLog.publishCacheEviction(getName(), key);
+		return present;
+	}
+
+	@Override
+	public void clear() {
+		cache.clear();
+		changeLog.publishCacheEviction(getName(), null);
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean present = cache.invalidate();
+		changeLog.publishCacheEviction(getName(), null);
+		return present;
+	}
+}
@@ -0,0 +1,10 @@
+package com.demo.addressbook.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.resilience.annotation.EnableResilientMethods;
+
+// Enables @Retryable, and with it @RetryOnConflict. Retry advice runs in front of the transactional advice, so each attempt is a new transaction.
+@Configuration
+@EnableResilientMethods
+public class RetryConfig {
+}
@@ -1,9 +1,16 @@
 package com.demo.addressbook.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,21 +18,38 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.demo.addressbook.dto.ChangeFeedPage;
 import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.dto.ContactImportResult;
+import com.demo.addressbook.dto.DataGenerationResult;
+import com.demo.addressbook.dto.WriteRequestStatus;
 import com.demo.addressbook.entity.AddressBook;
 import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.exception.InputValidationException;
 import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ChangeFeedService;
 import com.demo.addressbook.service.ContactService;
+import com.demo.addressbook.service.ContactWritePipeline;
 import com.demo.addressbook.service.InitialSetupService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import tools.jackson.databind.ObjectMapper;
 
 
 @Validated
@@ -33,15 +57,27 @@ import jakarta.validation.constraints.Pattern;
 @RequestMapping("/v1/address-book")
 public class AddressBookController {
 
+	private static final int DEFAULT_PAGE_SIZE = 100;
+	private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+	private static final String RESPOND_ASYNC = "respond-async";
+	private static final String REQUESTS_PATH = "/v1/address-book/requests/";
+	private static final int CHANGES_TIMEOUT_MARGIN_SECONDS = 5;
+
 	InitialSetupService initialSetupService;
 	AddressBookService addressBookService;
 	ContactService contactService;
+	ChangeFeedService changeFeedService;
+	ObjectMapper objectMapper;
+	ObjectProvider<ContactWritePipeline> writePipeline;
 	
-	public AddressBookController(InitialSetupService initialSetupService, AddressBookService addressBookService, ContactService contactService) {
+	public AddressBookController(InitialSetupService initialSetupService, AddressBookService addressBookService, ContactService contactService, ChangeFeedService changeFeedService, ObjectMapper objectMapper, ObjectProvider<ContactWritePipeline> writePipeline) {
 //		super();
 		this.initialSetupService = initialSetupService;
 		this.addressBookService = addressBookService;
 		this.contactService = contactService;
+		this.changeFeedService = changeFeedService;
+		this.objectMapper = objectMapper;
+		this.writePipeline = writePipeline;
 	}
 	
 	// Add Address Book
@@ -57,20 +93,82 @@ public class AddressBookController {
 	@Tag(name = "Add Contact", description = "There are two ways to add a contact to an address book")
 	@Operation(description = "Add a new contact to an Address Book")
 	@PutMapping(value = "/contact/add/{addressBookId}")
-    public ResponseEntity<String> addContact(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @Valid @RequestBody ContactDto contact)  {
+    public ResponseEntity<String> addContact(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @Valid @RequestBody ContactDto contact,
+    		@Parameter(description = "Send respond-async to queue the write when the write pipeline is enabled") @RequestHeader(value = "Prefer", required = false) String prefer)  {
+		ContactWritePipeline pipeline = asyncPipeline(prefer);
+		if (pipeline != null) {
+			return accepted(pipeline.submitAddContact(addressBookId, contact));
+		}
 		String response = addressBookService.addContact(addressBookId, contact);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 	
+	// Bulk import contacts into Address Book
+	@Tag(name = "Import Contacts", description = "Bulk import contacts as a JSON array or CSV")
+	@Operation(description = "Import a JSON array of contacts into an Address Book. Invalid or duplicate rows are reported and skipped")
+	@PutMapping(value = "/contact/import/{addressBookId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> importContacts(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @RequestBody List<ContactDto> contacts)  {
+		ContactImportResult result = addressBookService.importContacts(addressBookId, contacts);
+        return new ResponseEntity<>(importResponse(result), HttpStatus.OK);
+    }
+	
+	@Tag(name = "Import Contacts", description = "Bulk import contacts as a JSON array or CSV")
+	@Operation(description = "Import contacts from CSV with a header row (firstName,lastName,orgName,email,contactNumber) into an Address Book")
+	@PutMapping(value = "/contact/import/{addressBookId}", consumes = "text/csv")
+    public ResponseEntity<String> importContactsCsv(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @RequestBody String csv)  {
+		ContactImportResult result = addressBookService.importContactsFromCsv(addressBookId, csv);
+        return new ResponseEntity<>(importResponse(result), HttpStatus.OK);
+    }
+	
+	private static String importResponse(ContactImportResult result) {
+		String response = "Imported " + result.imported() + " contacts into Address Book";
+		return result.failures().isEmpty() ? response : response + ". Failed rows: " + result.failures();
+	}
+	
 	// Add Existing Contact to Address Book
 	@Tag(name = "Add Contact", description = "There are two ways to add a contact to an address book")
 	@Operation(description = "Add an existing contact to an Address Book")
 	@PutMapping(value = "/contact/addexisting/{addressBookId}~{contactId}")
-    public ResponseEntity<String> addExistingContact(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @Parameter(description = "Provide the contact Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Contact Id must be a number.") @PathVariable String contactId)  {
+    public ResponseEntity<String> addExistingContact(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @Parameter(description = "Provide the contact Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Contact Id must be a number.") @PathVariable String contactId,
+    		@Parameter(description = "Send respond-async to queue the write when the write pipeline is enabled") @RequestHeader(value = "Prefer", required = false) String prefer)  {
+		ContactWritePipeline pipeline = asyncPipeline(prefer);
+		if (pipeline != null) {
+			return accepted(pipeline.submitAddExistingContact(addressBookId, contactId));
+		}
 		String response = addressBookService.addExistingContact(addressBookId, contactId);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 	
+	// Status of a write queued with Prefer: respond-async
+	@Tag(name = "Add Contact", description = "There are two ways to add a contact to an address book")
+	@Operation(description = "Get the status of a queued add contact request")
+	@GetMapping(value = "/requests/{requestId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<WriteRequestStatus> getWriteRequestStatus(@Parameter(description = "Provide the request Id") @PathVariable String requestId) {
+		ContactWritePipeline pipeline = writePipeline.getIfAvailable();
+		if (pipeline == null) {
+			throw InputValidationException.WRITE_REQUEST_NOT_FOUND;
+		}
+        return new ResponseEntity<>(pipeline.getStatus(requestId), HttpStatus.OK);
+    }
+	
+	private ContactWritePipeline asyncPipeline(String prefer) {
+		return prefer != null && prefer.contains(RESPOND_ASYNC) ? writePipeline.getIfAvailable() : null;
+	}
+	
+	private static ResponseEntity<String> accepted(ContactWritePipeline.Ticket ticket) {
+		return ResponseEntity.accepted().location(URI.create(REQUESTS_PATH + ticket.requestId()))
+				.body("Request accepted:" + ticket.requestId());
+	}
+	
+	// Add several existing Contacts to Address Book
+	@Tag(name = "Add Contact", description = "There are two ways to add a contact to an address book")
+	@Operation(description = "Add a list of existing contacts to an Address Book. Unknown contact ids and contacts already in the Address Book are skipped")
+	@PutMapping(value = "/contact/addexisting/{addressBookId}/bulk")
+    public ResponseEntity<String> addExistingContacts(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @Parameter(description = "Provide the contact Ids") @RequestBody List<Long> contactIds)  {
+		int added = addressBookService.addExistingContacts(addressBookId, contactIds);
+        return new ResponseEntity<>("Added " + added + " of " + contactIds.size() + " contacts to Address Book", HttpStatus.OK);
+    }
+	
 	// Remove existing contact from Address Book
 	@Tag(name = "Remove Contact")
 	@Operation(description = "Remove an existing contact from an Address Book")
@@ -80,17 +178,64 @@ public class AddressBookController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 	
+	// Remove several contacts from Address Book
+	@Tag(name = "Remove Contact")
+	@Operation(description = "Remove a list of contacts from an Address Book. Contact ids that are not in the Address Book are ignored")
+	@DeleteMapping(value = "/contact/remove/{addressBookId}/bulk")
+    public ResponseEntity<String> removeContactsFromAddressBook(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId, @Parameter(description = "Provide the contact Ids") @RequestBody List<Long> contactIds) {
+		int removed = addressBookService.removeContactsByAddressBookId(addressBookId, contactIds);
+        return new ResponseEntity<>("Removed " + removed + " of " + contactIds.size() + " contacts from Address Book", HttpStatus.OK);
+    }
+	
 	//Print all contacts in an Address Book
 	@Tag(name = "View All Contacts", description = "There are two ways to view contacts")
 	@Operation(description = "Get all contacts for an Address Book")
 	@GetMapping(value = "/contacts/{addressBookId}")
-    public ResponseEntity<String> getContacts(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId) {
+    public ResponseEntity<String> getContacts(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId,
+    		@Parameter(description = "Zero based page number, used together with size") @Min(value = 0, message = "Page must not be negative.") @RequestParam(required = false) Integer page,
+    		@Parameter(description = "Number of contacts per page") @Min(value = 1, message = "Size must be at least 1.") @Max(value = 1000, message = "Size must be at most 1000.") @RequestParam(required = false) Integer size,
+    		@Parameter(description = "Keyset cursor: return contacts with an id greater than this one") @Min(value = 0, message = "After Contact Id must not be negative.") @RequestParam(required = false) Long afterContactId) {
 		HttpStatus status = HttpStatus.OK;
 		String response = null;
+		if (afterContactId != null) {
+			List<Contact> contacts = addressBookService.findContactsByAddressBookIdAfter(addressBookId.trim(), afterContactId, size == null ? DEFAULT_PAGE_SIZE : size);
+			if (contacts.isEmpty()) {
+				response = "No more contacts available for the Address Book";
+			} else {
+				response = "Contacts for addressBookId: " + contacts + ", nextAfterContactId=" + contacts.get(contacts.size() - 1).getContactId();
+			}
+		} else if (page != null || size != null) {
+			Page<Contact> contacts = addressBookService.findContactsByAddressBookId(addressBookId.trim(), page == null ? 0 : page, size == null ? DEFAULT_PAGE_SIZE : size);
+			response = contacts.isEmpty() ? "No contacts available for the Address Book" : "Contacts for addressBookId: " + contacts.getContent()
+					+ ", page=" + contacts.getNumber() + ", totalPages=" + contacts.getTotalPages() + ", totalContacts=" + contacts.getTotalElements();
+		} else {
 			Set<Contact> contacts = addressBookService.findAllContactsByAddressBookId(addressBookId.trim());
 			response = contacts.isEmpty() ? "No contacts available for the Address Book" : "Contacts for addressBookId: " + contacts;
+		}
         return new ResponseEntity<>(response, status);
     }
+	//Search contacts across Address Books
+	@Tag(name = "Search Contacts")
+	@Operation(description = "Search contacts by first name, last name, organisation, email or contact number. Every term must match a word by prefix, or with fuzzy set, by up to one typo")
+	@GetMapping(value = "/contacts/search")
+    public ResponseEntity<String> searchContacts(@Parameter(description = "Search terms") @NotBlank(message = "Search query is required.") @RequestParam String q,
+    		@Parameter(description = "Also match words one edit away from a term") @RequestParam(defaultValue = "false") boolean fuzzy,
+    		@Parameter(description = "Maximum number of contacts to return") @Min(value = 1, message = "Limit must be at least 1.") @Max(value = ContactService.MAX_SEARCH_RESULTS, message = "Limit must be at most 100.") @RequestParam(defaultValue = "20") int limit) {
+		List<Contact> contacts = contactService.searchContacts(q, fuzzy, limit);
+		String response = contacts.isEmpty() ? "No contacts match the search." : "Matching Contacts: " + contacts;
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+	
+	//Reverse lookup of contacts by phone number
+	@Tag(name = "Search Contacts")
+	@Operation(description = "Find the contacts with a contact number. Separators, a leading + and a 00 international prefix are ignored")
+	@GetMapping(value = "/contacts/lookup")
+    public ResponseEntity<String> lookupContacts(@Parameter(description = "Contact number, e.g. +61 123 456 789") @NotBlank(message = "Contact Number is required.") @RequestParam String number) {
+		List<Contact> contacts = contactService.findContactsByNumber(number);
+		String response = contacts.isEmpty() ? "No contacts found with the Contact Number." : "Contacts with Contact Number: " + contacts;
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+	
 	//Print all unique contacts across Address Books
 	@Tag(name = "View All Contacts", description = "There are two ways to view contacts")
 	@Operation(description = "Get all contacts across Address Books")
@@ -102,6 +247,42 @@ public class AddressBookController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 	
+	//Stream all unique contacts as newline delimited JSON
+	@Tag(name = "View All Contacts", description = "There are two ways to view contacts")
+	@Operation(description = "Export all contacts across Address Books as newline delimited JSON, streamed from the database")
+	@GetMapping(value = "/allcontacts", params = "format=ndjson", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportAllContacts() {
+		StreamingResponseBody body = out -> contactService.exportAllContacts(contact -> {
+			try {
+				out.write(objectMapper.writeValueAsBytes(contact));
+				out.write('\n');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE)).body(body);
+    }
+	
+	//Feed of contact changes after an offset, so consumers need not re-read all contacts to find what changed
+	@Tag(name = "Change Feed")
+	@Operation(description = "Get the contact changes (CREATED, LINKED, UNLINKED, DELETED) committed after an offset, in commit order. Pass the returned nextOffset as after on the next call. With wait, the request is held until a change arrives or the wait ends. Returns 410 with the earliestOffset still retained when changes after the offset have been purged; re-read the contacts and continue from there")
+	@GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ChangeFeedPage> getChanges(@Parameter(description = "Offset of the last change already processed, 0 to start from the oldest retained change") @Min(value = 0, message = "After must not be negative.") @RequestParam(defaultValue = "0") long after,
+    		@Parameter(description = "Maximum number of changes to return") @Min(value = 1, message = "Limit must be at least 1.") @Max(value = ChangeFeedService.MAX_FEED_SIZE, message = "Limit must be at most 1000.") @RequestParam(defaultValue = "100") int limit,
+    		@Parameter(description = "Seconds to wait for a change when there is none yet") @Min(value = 0, message = "Wait must not be negative.") @Max(value = ChangeFeedService.MAX_WAIT_SECONDS, message = "Wait must be at most 30 seconds.") @RequestParam(defaultValue = "0") int wait) {
+		// The servlet thread is released while waiting; the service completes the result when a change arrives
+		DeferredResult<ChangeFeedPage> result = new DeferredResult<>(
+				Duration.ofSeconds(wait + CHANGES_TIMEOUT_MARGIN_SECONDS).toMillis(), new ChangeFeedPage(List.of(), after));
+		changeFeedService.awaitChanges(after, limit, Duration.ofSeconds(wait)).whenComplete((changes, error) -> {
+			if (error == null) {
+				result.setResult(changes);
+			} else {
+				result.setErrorResult(error);
+			}
+		});
+        return result;
+    }
+	
 	@Tag(name = "Set Up Data")
 	@Operation(description = "Convenience method to set up initial address book data with 5 address books and contacts")
 	@PutMapping(value = "/setup")
@@ -110,5 +291,18 @@ public class AddressBookController {
         return new ResponseEntity<>("You address Book Id:" + addressBooks, HttpStatus.OK);
     }
 	
+	@Tag(name = "Set Up Data")
+	@Operation(description = "Generate a synthetic data set of address books and contacts for load testing. Each contact joins one random address book and each further book with probability overlap")
+	@PutMapping(value = "/setup/generate")
+    public ResponseEntity<String> generateAddressBooks(@Parameter(description = "Number of address books to create") @Min(value = 1, message = "Address Books must be at least 1.") @Max(value = InitialSetupService.MAX_GENERATED_ADDRESS_BOOKS, message = "Address Books must be at most 10000.") @RequestParam(defaultValue = "10") int addressBooks,
+    		@Parameter(description = "Number of contacts to create") @Min(value = 0, message = "Contacts must not be negative.") @Max(value = InitialSetupService.MAX_GENERATED_CONTACTS, message = "Contacts must be at most 10000000.") @RequestParam(defaultValue = "1000") int contacts,
+    		@Parameter(description = "Probability that a contact joins each further address book") @DecimalMin(value = "0.0", message = "Overlap must not be negative.") @DecimalMax(value = "1.0", inclusive = false, message = "Overlap must be less than 1.") @RequestParam(defaultValue = "0.2") double overlap,
+    		@Parameter(description = "Random seed, for a reproducible distribution") @RequestParam(required = false) Long seed) {
+		DataGenerationResult result = initialSetupService.generateAddressBookData(addressBooks, contacts, overlap,
+				seed == null ? System.nanoTime() : seed);
+        return new ResponseEntity<>("Generated " + result.addressBooks() + " address books, " + result.contacts() + " contacts and "
+        		+ result.links() + " links in " + result.elapsedMillis() + " ms (" + result.rowsPerSecond() + " rows/sec)", HttpStatus.OK);
+    }
+	
 	
 }
\ No newline at end of file
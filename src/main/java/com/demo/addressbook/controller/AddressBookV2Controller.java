@@ -0,0 +1,76 @@
+package com.demo.addressbook.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.demo.addressbook.dto.AddressBookDto;
+import com.demo.addressbook.entity.AddressBook;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import tools.jackson.databind.ObjectMapper;
+
+// JSON variant of the v1 API. Contact lists are streamed from DTO projections as they are read
+@Validated
+@RestController
+@RequestMapping(value = "/v2/address-book", produces = MediaType.APPLICATION_JSON_VALUE)
+public class AddressBookV2Controller {
+
+	AddressBookService addressBookService;
+	ContactService contactService;
+	ObjectMapper objectMapper;
+
+	public AddressBookV2Controller(AddressBookService addressBookService, ContactService contactService, ObjectMapper objectMapper) {
+		this.addressBookService = addressBookService;
+		this.contactService = contactService;
+		this.objectMapper = objectMapper;
+	}
+
+	// Add Address Book
+	@Tag(name = "Add Address Book")
+	@Operation(description = "Create a new address book with the given name and return it as JSON")
+	@PutMapping(value = "/add/{name}")
+    public ResponseEntity<AddressBookDto> addAddressBook(@Parameter(description = "Provide the Address Book name") @Valid @Pattern(regexp = "^[a-zA-Z0-9]*$", message = "Address Book Name must contain only alphanumeric characters.") @PathVariable String name) {
+		AddressBook addressBook = addressBookService.addAddressBook(name);
+        return ResponseEntity.ok(new AddressBookDto(addressBook.getAddressBookId(), addressBook.getName()));
+    }
+
+	// All contacts in an Address Book as a JSON array
+	@Tag(name = "View All Contacts", description = "There are two ways to view contacts")
+	@Operation(description = "Get all contacts for an Address Book as a JSON array, streamed from the database in contactId order")
+	@GetMapping(value = "/contacts/{addressBookId}")
+    public ResponseEntity<StreamingResponseBody> getContacts(@Parameter(description = "Provide the address book Id") @Valid @Pattern(regexp = "^[0-9]*$", message = "Address Book Id must be a number.") @PathVariable String addressBookId) {
+		addressBookService.requireAddressBook(addressBookId);
+		StreamingResponseBody body = out -> {
+			ContactJsonWriter writer = new ContactJsonWriter(objectMapper, out);
+			addressBookService.exportContactsByAddressBookId(addressBookId, writer.consumer());
+			writer.finish();
+		};
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+	// All unique contacts across Address Books as a JSON array
+	@Tag(name = "View All Contacts", description = "There are two ways to view contacts")
+	@Operation(description = "Get all contacts across Address Books as a JSON array, streamed from the database in contactId order")
+	@GetMapping(value = "/allcontacts")
+    public ResponseEntity<StreamingResponseBody> getAllContacts() {
+		StreamingResponseBody body = out -> {
+			ContactJsonWriter writer = new ContactJsonWriter(objectMapper, out);
+			contactService.exportAllContacts(writer.consumer());
+			writer.finish();
+		};
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
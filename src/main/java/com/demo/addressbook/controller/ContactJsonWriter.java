@@ -0,0 +1,45 @@
+package com.demo.addressbook.controller;
+
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+import com.demo.addressbook.dto.ContactDto;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+// Writes contacts straight to the response as a JSON array with the streaming generator,
+// so no entity, intermediate tree or String is built per contact.
+// The array is closed only by finish: if the export fails part way, the output is left as invalid JSON
+// instead of a well-formed but truncated array, and nothing still buffered is flushed, so an export that
+// fails early can still be answered with an error status.
+public class ContactJsonWriter {
+
+	private final JsonGenerator generator;
+
+	public ContactJsonWriter(ObjectMapper objectMapper, OutputStream out) {
+		this.generator = objectMapper.createGenerator(out);
+		generator.writeStartArray();
+	}
+
+	public Consumer<ContactDto> consumer() {
+		return this::write;
+	}
+
+	public void write(ContactDto contact) {
+		generator.writeStartObject();
+		generator.writeNumberProperty("contactId", contact.contactId());
+		generator.writeStringProperty("firstName", contact.firstName());
+		generator.writeStringProperty("lastName", contact.lastName());
+		generator.writeStringProperty("orgName", contact.orgName());
+		generator.writeStringProperty("email", contact.email());
+		generator.writeStringProperty("contactNumber", contact.contactNumber());
+		generator.writeEndObject();
+	}
+
+	// Call once every contact has been written
+	public void finish() {
+		generator.writeEndArray();
+		generator.close();
+	}
+}
@@ -0,0 +1,4 @@
+package com.demo.addressbook.dto;
+
+public record AddressBookDto(Long addressBookId, String name) {
+}
@@ -0,0 +1,7 @@
+package com.demo.addressbook.dto;
+
+import java.util.List;
+
+// Changes in offset order; nextOffset is the offset to pass on the next call, unchanged when no change arrived
+public record ChangeFeedPage(List<ContactChangeDto> changes, long nextOffset) {
+}
@@ -0,0 +1,14 @@
+package com.demo.addressbook.dto;
+
+import java.time.Instant;
+
+import com.demo.addressbook.entity.ContactChange;
+
+// One entry of the change feed; addressBookId is null for CREATED and DELETED
+public record ContactChangeDto(long offset, ContactChange.Type type, Long contactId, Long addressBookId, Instant changedAt) {
+
+	public static ContactChangeDto of(ContactChange change) {
+		return new ContactChangeDto(change.getFeedOffset(), change.getChangeType(), change.getContactId(),
+				change.getAddressBookId(), change.getChangedAt());
+	}
+}
@@ -0,0 +1,10 @@
+package com.demo.addressbook.dto;
+
+import java.util.List;
+
+public record ContactImportResult(int imported, List<RowFailure> failures) {
+
+	// Row numbers are 1-based positions in the submitted list; for CSV, the line a record starts on (header is line 1)
+	public record RowFailure(int row, String reason) {
+	}
+}
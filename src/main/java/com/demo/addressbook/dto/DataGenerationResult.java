@@ -0,0 +1,10 @@
+package com.demo.addressbook.dto;
+
+public record DataGenerationResult(int addressBooks, int contacts, long links, long elapsedMillis) {
+
+	// Address book, contact and join-table rows written per second of wall clock time
+	public long rowsPerSecond() {
+		long rows = addressBooks + contacts + links;
+		return elapsedMillis == 0 ? rows * 1000 : rows * 1000 / elapsedMillis;
+	}
+}
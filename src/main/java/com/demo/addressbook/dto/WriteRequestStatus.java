@@ -0,0 +1,9 @@
+package com.demo.addressbook.dto;
+
+// State of a write accepted by the asynchronous write pipeline; message is the service response or the failure
+public record WriteRequestStatus(String requestId, State state, String message) {
+
+	public enum State {
+		PENDING, COMPLETED, FAILED
+	}
+}
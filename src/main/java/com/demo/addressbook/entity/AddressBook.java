@@ -1,25 +1,34 @@
 package com.demo.addressbook.entity;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "ADDRESS_BOOK", uniqueConstraints = {
+		@UniqueConstraint(name = "UC_ADDRESS_BOOK_NAME", columnNames = { "normalizedName" }) })
 public class AddressBook {
 		@Id
-		@GeneratedValue(strategy = GenerationType.AUTO)
+		@PooledSequence(name = "address_book_seq")
 		private Long addressBookId;
 		
 		@NotBlank(message = "Name is required")
@@ -27,8 +36,19 @@ public class AddressBook {
 		@Column
 		private String name;
 		
+		// Trimmed, lower-cased copy of name so that case-insensitive uniqueness is enforced by the database
+		@Column(nullable = false)
+		private String normalizedName;
+		
+		// Concurrent updates of the same address book fail instead of overwriting each other
+		@Version
+		private Long version;
+		
+		// Membership changes do not bump the version, so writers adding or removing contacts never conflict
 		@Column(nullable = true)
+		@OptimisticLock(excluded = true)
 		@ManyToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+		@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 		@JoinTable(
 				  name = "addressBookContact", 
 				  joinColumns = @JoinColumn(name = "addressBookId"), 
@@ -49,6 +69,19 @@ public class AddressBook {
 		
 		public void setName(String name) {
 			this.name = name;
+			this.normalizedName = normalizeName(name);
+		}
+		
+		public Long getVersion() {
+			return version;
+		}
+		
+		public String getNormalizedName() {
+			return normalizedName;
+		}
+		
+		public static String normalizeName(String name) {
+			return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
 		}
 		
 		public Set<Contact> getContacts() {
@@ -63,7 +96,7 @@ public class AddressBook {
 		}
 		
 		public AddressBook(String name) {
-			this.name = name;
+			setName(name);
 		}
 
 		@Override
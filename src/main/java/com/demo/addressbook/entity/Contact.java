@@ -3,25 +3,35 @@ package com.demo.addressbook.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
+
+import com.demo.addressbook.search.ContactSearchIndexListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@EntityListeners(ContactSearchIndexListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "CONTACT", uniqueConstraints = {
-		@UniqueConstraint(name = "UC_NAME", columnNames = { "firstName", "lastName" }) })
+		@UniqueConstraint(name = "UC_NAME", columnNames = { "firstName", "lastName" }) }, indexes = {
+		@Index(name = "IDX_CONTACT_NUMBER", columnList = "normalizedContactNumber") })
 public class Contact {
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@PooledSequence(name = "contact_seq")
 	private Long contactId;
 
 	@NotBlank(message = "First Name is required")
@@ -47,7 +57,17 @@ public class Contact {
 	@Column(nullable = false)
 	private String contactNumber;
 
+	// Canonical digits of contactNumber for reverse lookups; null only for rows awaiting the backfill
+	@Column
+	private String normalizedContactNumber;
+
+	// Concurrent updates of the same contact fail instead of overwriting each other
+	@Version
+	private Long version;
+
 	@ManyToMany(mappedBy = "contacts", fetch = FetchType.LAZY)
+	@OptimisticLock(excluded = true)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	private Set<AddressBook> addressBooks = new HashSet<>();
 
 	public Contact() {
@@ -56,7 +76,7 @@ public class Contact {
 	public Contact(String firstName, String lastName, String contactNumber) {
 		this.firstName = firstName;
 		this.lastName = lastName;
-		this.contactNumber = contactNumber;
+		setContactNumber(contactNumber);
 	}
 
 	public Contact(String firstName, String lastName, String orgName, String email, String contactNumber) {
@@ -64,7 +84,7 @@ public class Contact {
 		this.lastName = lastName;
 		this.orgName = orgName;
 		this.email = email;
-		this.contactNumber = contactNumber;
+		setContactNumber(contactNumber);
 	}
 
 	public Long getContactId() {
@@ -113,6 +133,29 @@ public class Contact {
 
 	public void setContactNumber(String contactNumber) {
 		this.contactNumber = contactNumber;
+		this.normalizedContactNumber = normalizeContactNumber(contactNumber);
+	}
+
+	public String getNormalizedContactNumber() {
+		return normalizedContactNumber;
+	}
+
+	// E.164-like digits: separators and the leading + are dropped and a 00 international prefix is removed,
+	// so "+61 123 456 789", "0061-123-456-789" and "61123456789" all normalize to "61123456789"
+	public static String normalizeContactNumber(String contactNumber) {
+		if (contactNumber == null) {
+			return null;
+		}
+		String trimmed = contactNumber.trim();
+		String digits = trimmed.replaceAll("[^0-9]", "");
+		if (!trimmed.startsWith("+") && digits.startsWith("00")) {
+			digits = digits.substring(2);
+		}
+		return digits.isEmpty() ? null : digits;
+	}
+
+	public Long getVersion() {
+		return version;
 	}
 
 	public Set<AddressBook> getAddressBooks() {
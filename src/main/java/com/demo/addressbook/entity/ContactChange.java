@@ -0,0 +1,75 @@
+package com.demo.addressbook.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Append-only log of contact mutations, written in the same transaction as the mutation. Rows are inserted
+// without a feedOffset; offsets are assigned in commit order afterwards, see ContactChangeRepositoryCustom.
+@Entity
+@Table(name = "CONTACT_CHANGE", indexes = {
+		@Index(name = "IDX_CONTACT_CHANGE_OFFSET", columnList = "feedOffset", unique = true),
+		@Index(name = "IDX_CONTACT_CHANGE_CHANGED", columnList = "changedAt") })
+public class ContactChange {
+
+	public enum Type {
+		CREATED, LINKED, UNLINKED, DELETED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@JdbcTypeCode(SqlTypes.VARCHAR)
+	@Column(nullable = false, length = 16)
+	private Type changeType;
+
+	@Column(nullable = false)
+	private Long contactId;
+
+	// Null for changes of the contact itself (CREATED, DELETED)
+	@Column
+	private Long addressBookId;
+
+	@Column(nullable = false)
+	private Instant changedAt;
+
+	@Column
+	private Long feedOffset;
+
+	public Long getId() {
+		return id;
+	}
+
+	public Type getChangeType() {
+		return changeType;
+	}
+
+	public Long getContactId() {
+		return contactId;
+	}
+
+	public Long getAddressBookId() {
+		return addressBookId;
+	}
+
+	public Instant getChangedAt() {
+		return changedAt;
+	}
+
+	public Long getFeedOffset() {
+		return feedOffset;
+	}
+}
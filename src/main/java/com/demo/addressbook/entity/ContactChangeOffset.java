@@ -0,0 +1,28 @@
+package com.demo.addressbook.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Single row holding the last feed offset handed out. Its row lock serializes offset assignment across replicas.
+@Entity
+@Table(name = "CONTACT_CHANGE_OFFSET")
+public class ContactChangeOffset {
+
+	public static final int ID = 1;
+
+	@Id
+	private Integer id;
+
+	@Column(nullable = false)
+	private Long lastOffset;
+
+	public Integer getId() {
+		return id;
+	}
+
+	public Long getLastOffset() {
+		return lastOffset;
+	}
+}
@@ -0,0 +1,17 @@
+package com.demo.addressbook.entity;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+// Sequence backed id with a pooled-lo optimizer; the allocation size comes from addressbook.id.allocation-size
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface PooledSequence {
+	String name();
+}
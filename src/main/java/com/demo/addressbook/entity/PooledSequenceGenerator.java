@@ -0,0 +1,35 @@
+package com.demo.addressbook.entity;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+@SuppressWarnings("serial")
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String ALLOCATION_SIZE_SETTING = "addressbook.id.allocation-size";
+	public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+	private final String sequenceName;
+
+	public PooledSequenceGenerator(PooledSequence config) {
+		this.sequenceName = config.name();
+	}
+
+	@Override
+	public void configure(GeneratorCreationContext creationContext, Properties parameters) throws MappingException {
+		int allocationSize = creationContext.getServiceRegistry().requireService(ConfigurationService.class)
+				.getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+		if (allocationSize < 1) {
+			throw new MappingException(ALLOCATION_SIZE_SETTING + " must be at least 1");
+		}
+		parameters.put(SEQUENCE_PARAM, sequenceName);
+		parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+		parameters.put(OPT_PARAM, "pooled-lo");
+		super.configure(creationContext, parameters);
+	}
+}
@@ -5,4 +5,10 @@ public class AddressBookException extends RuntimeException {
 	public AddressBookException(String message) {
 		super(message);
 	}
+
+	// Stackless variant for expected control flow: no stack walk on construction and no suppressed exceptions,
+	// so an instance is immutable and can be preallocated and thrown from any thread
+	protected AddressBookException(String message, boolean stackless) {
+		super(message, null, !stackless, !stackless);
+	}
 }
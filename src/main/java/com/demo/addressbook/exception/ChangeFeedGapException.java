@@ -0,0 +1,18 @@
+package com.demo.addressbook.exception;
+
+// The changes following a consumer's offset were purged by the retention period. The consumer has missed changes
+// and must re-read the contacts, then continue from earliestOffset - 1.
+@SuppressWarnings("serial")
+public class ChangeFeedGapException extends AddressBookException {
+
+	private final long earliestOffset;
+
+	public ChangeFeedGapException(long earliestOffset) {
+		super("Changes after the offset are no longer retained, the earliest retained offset is " + earliestOffset, true);
+		this.earliestOffset = earliestOffset;
+	}
+
+	public long getEarliestOffset() {
+		return earliestOffset;
+	}
+}
@@ -2,10 +2,19 @@ package com.demo.addressbook.exception;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -14,66 +23,111 @@ import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import jakarta.validation.ConstraintViolationException;
 
+// Errors are rendered as RFC 7807 problem details (application/problem+json). The stack trace is only
+// rendered into the "trace" property when addressbook.errors.include-stack-trace is set, as in the debug profile.
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 	
-	private static final String GENERIC_ERROR_MESSAGE = "An unexpected error occurred. ";
-	private static final String RESOURCE_ERROR_MESSAGE = "Requested resource not found. ";
-	private static final String VALIDATION_ERROR_MESSAGE = "Validation failed for input request parameters. Please check and try again. ";
-	private static final String DATABASE_VIOLATION_MESSAGE = "Database Constraint violation. ";
-	private static final String EXCEPTION_DETAILS_HEADING = "Exception Trace: ";
-	private final boolean enableStackTrace = true; // Set to false to disable stack trace in responses
+	private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+	private static final String GENERIC_ERROR_MESSAGE = "An unexpected error occurred.";
+	private static final String RESOURCE_ERROR_MESSAGE = "Requested resource not found.";
+	private static final String VALIDATION_ERROR_MESSAGE = "Validation failed for input request parameters. Please check and try again.";
+	private static final String DATABASE_VIOLATION_MESSAGE = "Database Constraint violation.";
+	private static final String SERVICE_BUSY_MESSAGE = "Service is busy, no database connection became available. Please retry.";
+	private static final String WRITE_QUEUE_FULL_MESSAGE = "Too many writes are queued. Please retry.";
+	private static final String CHANGE_FEED_GAP_MESSAGE = "Changes after the offset have been purged. Re-read the contacts and continue from earliestOffset.";
+	private static final String RETRY_AFTER_SECONDS = "1";
+	private static final String TRACE_PROPERTY = "trace";
+	private static final String EARLIEST_OFFSET_PROPERTY = "earliestOffset";
+
+	private final boolean includeStackTrace;
+
+	public GlobalExceptionHandler(@Value("${addressbook.errors.include-stack-trace:false}") boolean includeStackTrace) {
+		this.includeStackTrace = includeStackTrace;
+	}
+
 	@ExceptionHandler(Exception.class)
-	public ResponseEntity<String> handleGenericException(Exception ex) {
-		return buildRespopnseWithExceptionTrace(ex, GENERIC_ERROR_MESSAGE, HttpStatus.INTERNAL_SERVER_ERROR);
+	public ResponseEntity<ProblemDetail> handleGenericException(Exception ex) {
+		// The client only sees a generic problem, so the cause has to be in the log
+		LOGGER.error("Unhandled exception while processing request", ex);
+		return buildProblemResponse(ex, GENERIC_ERROR_MESSAGE, HttpStatus.INTERNAL_SERVER_ERROR);
 	}
 	
 	@ExceptionHandler(ConstraintViolationException.class)
-	public ResponseEntity<String> handleGenericException(ConstraintViolationException ex) {
-		return buildRespopnseWithExceptionTrace(ex, VALIDATION_ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+	public ResponseEntity<ProblemDetail> handleGenericException(ConstraintViolationException ex) {
+		return buildProblemResponse(ex, VALIDATION_ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
 	}
 	
 	@ExceptionHandler(MethodArgumentNotValidException.class)
-	public ResponseEntity<String> handleGenericException(MethodArgumentNotValidException ex) {
-		return buildRespopnseWithExceptionTrace(ex, VALIDATION_ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+	public ResponseEntity<ProblemDetail> handleGenericException(MethodArgumentNotValidException ex) {
+		return buildProblemResponse(ex, VALIDATION_ERROR_MESSAGE, validationDetail(ex.getAllErrors()), HttpStatus.BAD_REQUEST);
 	}
 	
 	@ExceptionHandler(DataIntegrityViolationException.class)
-	public ResponseEntity<String> handleGenericException(DataIntegrityViolationException ex) {
-		return buildRespopnseWithExceptionTrace(ex, DATABASE_VIOLATION_MESSAGE, HttpStatus.CONFLICT);
+	public ResponseEntity<ProblemDetail> handleGenericException(DataIntegrityViolationException ex) {
+		return buildProblemResponse(ex, DATABASE_VIOLATION_MESSAGE, HttpStatus.CONFLICT);
 	}
 	
 	
+	// Raised when the Hikari pool times out handing out a connection
+	@ExceptionHandler(CannotCreateTransactionException.class)
+	public ResponseEntity<ProblemDetail> handleGenericException(CannotCreateTransactionException ex) {
+		// Expected under overload, so without the stack trace
+		LOGGER.warn("No database connection available: {}", ex.getMessage());
+		return buildProblemResponse(ex, SERVICE_BUSY_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+	
+	// Backpressure from the asynchronous write pipeline
+	@ExceptionHandler(WriteQueueFullException.class)
+	public ResponseEntity<ProblemDetail> handleException(WriteQueueFullException ex) {
+		ResponseEntity<ProblemDetail> response = buildProblemResponse(ex, WRITE_QUEUE_FULL_MESSAGE, HttpStatus.TOO_MANY_REQUESTS);
+		return ResponseEntity.status(response.getStatusCode()).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+				.body(response.getBody());
+	}
+	
+	// A change feed consumer fell behind the retention period and has to resynchronize
+	@ExceptionHandler(ChangeFeedGapException.class)
+	public ResponseEntity<ProblemDetail> handleException(ChangeFeedGapException ex) {
+		ResponseEntity<ProblemDetail> response = buildProblemResponse(ex, CHANGE_FEED_GAP_MESSAGE, HttpStatus.GONE);
+		response.getBody().setProperty(EARLIEST_OFFSET_PROPERTY, ex.getEarliestOffset());
+		return response;
+	}
+	
 	@ExceptionHandler(HandlerMethodValidationException.class)
-	public ResponseEntity<String> handleGenericException(HandlerMethodValidationException ex) {
-		return buildRespopnseWithExceptionTrace(ex, VALIDATION_ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+	public ResponseEntity<ProblemDetail> handleGenericException(HandlerMethodValidationException ex) {
+		return buildProblemResponse(ex, VALIDATION_ERROR_MESSAGE, validationDetail(ex.getAllErrors()), HttpStatus.BAD_REQUEST);
 	}
 	
 	@ExceptionHandler(InputValidationException.class)
-    public ResponseEntity<String> handleException(InputValidationException ex) {
-    	return buildRespopnseWithExceptionTrace(ex, RESOURCE_ERROR_MESSAGE, HttpStatus.NOT_FOUND);
+    public ResponseEntity<ProblemDetail> handleException(InputValidationException ex) {
+    	return buildProblemResponse(ex, RESOURCE_ERROR_MESSAGE, HttpStatus.NOT_FOUND);
     }
 	
     @ExceptionHandler(NoResourceFoundException.class)
-    public ResponseEntity<String> handleException(NoResourceFoundException ex) {
-    	return buildRespopnseWithExceptionTrace(ex, RESOURCE_ERROR_MESSAGE, HttpStatus.NOT_FOUND);
+    public ResponseEntity<ProblemDetail> handleException(NoResourceFoundException ex) {
+    	return buildProblemResponse(ex, RESOURCE_ERROR_MESSAGE, HttpStatus.NOT_FOUND);
+    }
+    
+    // The framework messages of validation exceptions dump the handler method signature and message codes,
+    // so only the constraint messages, e.g. "First Name must be between 3 and 20 characters", are rendered
+    private static String validationDetail(List<? extends MessageSourceResolvable> errors) {
+    	return errors.stream().map(MessageSourceResolvable::getDefaultMessage).distinct()
+    			.collect(Collectors.joining("; "));
+    }
+    
+    private ResponseEntity<ProblemDetail> buildProblemResponse(Exception ex, String title, HttpStatus status) {
+    	return buildProblemResponse(ex, title, ex.getMessage(), status);
     }
     
-    private ResponseEntity<String> buildRespopnseWithExceptionTrace(Exception ex, String exceptionType, HttpStatus status) {
-    	StringWriter sw = new StringWriter();
-        PrintWriter pw = new PrintWriter(sw);
-        ex.printStackTrace(pw); // Print the stack trace to the PrintWriter
-    	StringBuilder sb = new StringBuilder();
-    	sb.append(exceptionType)
-    	.append("\n")
-    	.append(ex.getMessage());
-    	if (enableStackTrace) {
-	    	sb.append("\n\n")
-	    	.append(EXCEPTION_DETAILS_HEADING)
-	    	.append("\n")
-	    	.append(sw.toString());
+    private ResponseEntity<ProblemDetail> buildProblemResponse(Exception ex, String title, String detail, HttpStatus status) {
+    	ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+    	problem.setTitle(title);
+    	if (includeStackTrace) {
+    		StringWriter sw = new StringWriter();
+    		ex.printStackTrace(new PrintWriter(sw));
+    		problem.setProperty(TRACE_PROPERTY, sw.toString());
     	}
-		
-        return ResponseEntity.status(status).body(sb.toString());
+        return ResponseEntity.status(status).body(problem);
 	}
 }
@@ -1,8 +1,17 @@
 package com.demo.addressbook.exception;
 
+// Rejected input or a missing resource. These are expected outcomes reported to the client, never bugs,
+// so they are stackless and the most frequent ones are preallocated.
 @SuppressWarnings("serial")
 public class InputValidationException extends AddressBookException {
+
+	public static final InputValidationException ADDRESS_BOOK_ID_REQUIRED = new InputValidationException("Address Book Id is required");
+	public static final InputValidationException ADDRESS_BOOK_NOT_FOUND = new InputValidationException("Address Book not found");
+	public static final InputValidationException CONTACT_NOT_FOUND = new InputValidationException("Contact not found");
+	public static final InputValidationException CONTACT_NOT_IN_ADDRESS_BOOK = new InputValidationException("Contact not found in Address Book");
+	public static final InputValidationException WRITE_REQUEST_NOT_FOUND = new InputValidationException("Write request not found");
+
 	public InputValidationException(String message) {
-		super(message);
+		super(message, true);
 	}
 }
@@ -0,0 +1,13 @@
+package com.demo.addressbook.exception;
+
+// The asynchronous write pipeline is at capacity; the client should retry later. Raised on every rejected
+// write during an overload, so a single stackless instance is shared.
+@SuppressWarnings("serial")
+public class WriteQueueFullException extends AddressBookException {
+
+	public static final WriteQueueFullException INSTANCE = new WriteQueueFullException();
+
+	private WriteQueueFullException() {
+		super("Write queue is full", true);
+	}
+}
@@ -0,0 +1,18 @@
+package com.demo.addressbook.idempotency;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import tools.jackson.databind.ObjectMapper;
+
+@Configuration
+public class IdempotencyConfig {
+
+	// A bean of this configuration rather than a @Component, so that web slice tests, which pick up filter
+	// components but not the IdempotencyStore, do not try to create it
+	@Bean
+	FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper) {
+		return new FilterRegistrationBean<>(new IdempotencyFilter(store, objectMapper));
+	}
+}
@@ -0,0 +1,221 @@
+package com.demo.addressbook.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.demo.addressbook.idempotency.IdempotencyStore.Entry;
+import com.demo.addressbook.idempotency.IdempotencyStore.StoredResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.ObjectMapper;
+
+// PUT and DELETE requests to /v1/address-book carrying an Idempotency-Key header are executed once per key.
+// Retries with the same key and the same method, URI and body get the recorded response, marked with
+// Idempotent-Replayed, without reaching the controller. Server errors and responses asking the client to retry
+// later, such as 429 from a full write queue, are not recorded, so the retry is executed.
+// Registered by IdempotencyConfig.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	static final String PATH_PREFIX = "/v1/address-book/";
+	static final int MAX_KEY_LENGTH = 255;
+	static final String PROBLEM_TITLE = "Idempotency-Key rejected.";
+	// Headers that carry part of the outcome, e.g. where to poll a request accepted with 202
+	static final List<String> RECORDED_HEADERS = List.of(HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER);
+	static final Set<Integer> TRANSIENT_STATUSES = Set.of(HttpStatus.REQUEST_TIMEOUT.value(), HttpStatus.TOO_EARLY.value(),
+			HttpStatus.TOO_MANY_REQUESTS.value());
+
+	IdempotencyStore store;
+	ObjectMapper objectMapper;
+
+	public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper) {
+		this.store = store;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String method = request.getMethod();
+		return !(HttpMethod.PUT.matches(method) || HttpMethod.DELETE.matches(method))
+				|| !request.getRequestURI().startsWith(request.getContextPath() + PATH_PREFIX)
+				|| request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+		if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			writeProblem(request, response, HttpStatus.BAD_REQUEST,
+					IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+			return;
+		}
+		CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+		String fingerprint = fingerprint(cachedRequest);
+
+		Optional<Entry> existing = store.claim(key, fingerprint);
+		if (existing.isPresent()) {
+			Entry entry = existing.get();
+			if (!entry.fingerprint().equals(fingerprint)) {
+				writeProblem(request, response, HttpStatus.UNPROCESSABLE_CONTENT,
+						IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+			} else if (entry.inProgress()) {
+				writeProblem(request, response, HttpStatus.CONFLICT,
+						"A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+			} else {
+				replay(response, entry.response());
+			}
+			return;
+		}
+
+		ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+		boolean recorded = false;
+		try {
+			filterChain.doFilter(cachedRequest, cachedResponse);
+			if (isRecorded(cachedResponse.getStatus())) {
+				store.complete(key, new StoredResponse(cachedResponse.getStatus(), cachedResponse.getContentType(),
+						recordedHeaders(cachedResponse), cachedResponse.getContentAsByteArray()));
+				recorded = true;
+			}
+		} finally {
+			if (!recorded) {
+				store.release(key);
+			}
+			cachedResponse.copyBodyToResponse();
+		}
+	}
+
+	private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+		response.setStatus(stored.status());
+		if (stored.contentType() != null) {
+			response.setContentType(stored.contentType());
+		}
+		stored.headers().forEach(response::setHeader);
+		response.setHeader(REPLAYED_HEADER, "true");
+		response.setContentLength(stored.body().length);
+		response.getOutputStream().write(stored.body());
+	}
+
+	private static boolean isRecorded(int status) {
+		return status < HttpStatus.INTERNAL_SERVER_ERROR.value() && !TRANSIENT_STATUSES.contains(status);
+	}
+
+	private static Map<String, String> recordedHeaders(HttpServletResponse response) {
+		Map<String, String> headers = new LinkedHashMap<>();
+		for (String name : RECORDED_HEADERS) {
+			String value = response.getHeader(name);
+			if (value != null) {
+				headers.put(name, value);
+			}
+		}
+		return headers;
+	}
+
+	// Rendered with the same members as the problem details of GlobalExceptionHandler
+	private void writeProblem(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String detail)
+			throws IOException {
+		Map<String, Object> problem = new LinkedHashMap<>();
+		problem.put("type", "about:blank");
+		problem.put("title", PROBLEM_TITLE);
+		problem.put("status", status.value());
+		problem.put("detail", detail);
+		problem.put("instance", request.getRequestURI());
+		response.setStatus(status.value());
+		response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), problem);
+	}
+
+	// Same key, different request: method, URI, query string and body are hashed together
+	private static String fingerprint(CachedBodyRequest request) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n')
+					.getBytes(StandardCharsets.UTF_8));
+			digest.update(request.body);
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// Reads the body up front so that it can be fingerprinted before the request is executed
+	private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+		private final byte[] body;
+
+		CachedBodyRequest(HttpServletRequest request) throws IOException {
+			super(request);
+			this.body = request.getInputStream().readAllBytes();
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream in = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+				@Override
+				public int read() {
+					return in.read();
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					return in.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return in.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				// The body is already in memory, so the listener can read all of it at once
+				@Override
+				public void setReadListener(ReadListener readListener) {
+					try {
+						if (!isFinished()) {
+							readListener.onDataAvailable();
+						}
+						readListener.onAllDataRead();
+					} catch (IOException e) {
+						readListener.onError(e);
+					}
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() throws IOException {
+			String encoding = getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+			return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.demo.addressbook.idempotency;
+
+import java.util.Map;
+import java.util.Optional;
+
+// Responses recorded per Idempotency-Key so that a retried write is answered without executing it again
+public interface IdempotencyStore {
+
+	// Claims the key for a request with the given fingerprint. Returns empty when the caller now owns the key and
+	// must execute the request, otherwise the entry recorded by the request that claimed it first.
+	Optional<Entry> claim(String key, String fingerprint);
+
+	// Records the response of the request that claimed the key
+	void complete(String key, StoredResponse response);
+
+	// Gives the key up without a response, so that a retry executes the request again
+	void release(String key);
+
+	record Entry(String fingerprint, StoredResponse response) {
+
+		public boolean inProgress() {
+			return response == null;
+		}
+	}
+
+	// headers holds the response headers that are replayed along with the body, such as Location
+	record StoredResponse(int status, String contentType, Map<String, String> headers, byte[] body) {
+	}
+}
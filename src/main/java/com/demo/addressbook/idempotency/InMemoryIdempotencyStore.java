@@ -0,0 +1,39 @@
+package com.demo.addressbook.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Per-instance store bounded by addressbook.idempotency.max-entries, entries expire ttl after they were claimed
+@Component
+@ConditionalOnProperty(name = "addressbook.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+	private final Cache<String, Entry> entries;
+
+	public InMemoryIdempotencyStore(@Value("${addressbook.idempotency.ttl:24h}") Duration ttl,
+			@Value("${addressbook.idempotency.max-entries:100000}") long maxEntries) {
+		this.entries = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).build();
+	}
+
+	@Override
+	public Optional<Entry> claim(String key, String fingerprint) {
+		return Optional.ofNullable(entries.asMap().putIfAbsent(key, new Entry(fingerprint, null)));
+	}
+
+	@Override
+	public void complete(String key, StoredResponse response) {
+		entries.asMap().computeIfPresent(key, (k, entry) -> new Entry(entry.fingerprint(), response));
+	}
+
+	@Override
+	public void release(String key) {
+		entries.invalidate(key);
+	}
+}
@@ -0,0 +1,102 @@
+package com.demo.addressbook.idempotency;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Store in the idempotency_key table (Flyway V4), shared by every replica of the clustered profile so that a
+// retry routed to another pod is still answered from the store. Each statement commits on its own.
+@Component
+@ConditionalOnProperty(name = "addressbook.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+	private static final String DELETE_EXPIRED = "delete from idempotency_key where created_at < dateadd('MILLISECOND', -?, current_timestamp)";
+	private static final String INSERT_CLAIM = "insert into idempotency_key (idempotency_key, fingerprint) values (?, ?)";
+	private static final String TAKE_OVER_CLAIM = "update idempotency_key set created_at = current_timestamp where idempotency_key = ? "
+			+ "and fingerprint = ? and status is null and created_at < dateadd('MILLISECOND', -?, current_timestamp)";
+	private static final String SELECT_ENTRY = "select fingerprint, status, content_type, headers, body from idempotency_key where idempotency_key = ?";
+	private static final String UPDATE_RESPONSE = "update idempotency_key set status = ?, content_type = ?, headers = ?, body = ? where idempotency_key = ?";
+	private static final String HEADER_SEPARATOR = ": ";
+	private static final String DELETE_KEY = "delete from idempotency_key where idempotency_key = ?";
+	private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	JdbcTemplate jdbcTemplate;
+	long ttlMillis;
+	long leaseMillis;
+
+	private final AtomicLong nextPurge = new AtomicLong(System.nanoTime());
+
+	public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, @Value("${addressbook.idempotency.ttl:24h}") Duration ttl,
+			@Value("${addressbook.idempotency.lease:30s}") Duration lease) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.ttlMillis = ttl.toMillis();
+		this.leaseMillis = lease.toMillis();
+	}
+
+	@Override
+	public Optional<Entry> claim(String key, String fingerprint) {
+		purgeExpired();
+		try {
+			jdbcTemplate.update(INSERT_CLAIM, key, fingerprint);
+			return Optional.empty();
+		} catch (DuplicateKeyException e) {
+			// A claim still in progress after the lease was left by a request whose pod died, so the retry of the
+			// same request takes it over instead of getting 409 until the ttl expires
+			if (jdbcTemplate.update(TAKE_OVER_CLAIM, key, fingerprint, leaseMillis) == 1) {
+				return Optional.empty();
+			}
+			// Released between the insert and this select: report it as in progress and let the client retry
+			return Optional.of(jdbcTemplate.query(SELECT_ENTRY, rs -> rs.next()
+					? new Entry(rs.getString(1), rs.getObject(2) == null ? null
+							: new StoredResponse(rs.getInt(2), rs.getString(3), decodeHeaders(rs.getString(4)), rs.getBytes(5)))
+					: new Entry(fingerprint, null), key));
+		}
+	}
+
+	@Override
+	public void complete(String key, StoredResponse response) {
+		jdbcTemplate.update(UPDATE_RESPONSE, response.status(), response.contentType(), encodeHeaders(response.headers()),
+				response.body(), key);
+	}
+
+	@Override
+	public void release(String key) {
+		jdbcTemplate.update(DELETE_KEY, key);
+	}
+
+	// At most one request per interval deletes the expired keys; a key is kept up to one interval past its ttl
+	private void purgeExpired() {
+		long now = System.nanoTime();
+		long scheduled = nextPurge.get();
+		if (now - scheduled >= 0 && nextPurge.compareAndSet(scheduled, now + PURGE_INTERVAL_NANOS)) {
+			jdbcTemplate.update(DELETE_EXPIRED, ttlMillis);
+		}
+	}
+
+	// Header values cannot contain line breaks, so one line per header needs no escaping
+	private static String encodeHeaders(Map<String, String> headers) {
+		return headers.entrySet().stream().map(header -> header.getKey() + HEADER_SEPARATOR + header.getValue())
+				.collect(Collectors.joining("\n"));
+	}
+
+	private static Map<String, String> decodeHeaders(String encoded) {
+		Map<String, String> headers = new LinkedHashMap<>();
+		if (encoded != null && !encoded.isEmpty()) {
+			for (String line : encoded.split("\n")) {
+				int separator = line.indexOf(HEADER_SEPARATOR);
+				headers.put(line.substring(0, separator), line.substring(separator + HEADER_SEPARATOR.length()));
+			}
+		}
+		return headers;
+	}
+}
@@ -0,0 +1,48 @@
+package com.demo.addressbook.metrics;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactRepository;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class MetricsConfig {
+
+	static final String JOIN_TABLE_SIZE = "select count(*) from address_book_contact";
+
+	// Enables @Timed on the services
+	@Bean
+	TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+	// A bean of the metrics configuration rather than a @Component, so that web slice tests, which pick up
+	// filter components but have no MeterRegistry, do not try to create it
+	@Bean
+	FilterRegistrationBean<StatementCountFilter> statementCountFilter(MeterRegistry meterRegistry) {
+		return new FilterRegistrationBean<>(new StatementCountFilter(meterRegistry));
+	}
+
+	// Data set size, evaluated with a count query on every scrape
+	@Bean
+	MeterBinder dataSetGauges(AddressBookRepository addressBookRepository, ContactRepository contactRepository,
+			JdbcTemplate jdbcTemplate) {
+		return registry -> {
+			Gauge.builder("addressbook.address.books", addressBookRepository, AddressBookRepository::count)
+					.description("Number of address books").register(registry);
+			Gauge.builder("addressbook.contacts", contactRepository, ContactRepository::count)
+					.description("Number of contacts").register(registry);
+			Gauge.builder("addressbook.address.book.contacts", jdbcTemplate,
+					template -> template.queryForObject(JOIN_TABLE_SIZE, Long.class))
+					.description("Number of address book to contact links").register(registry);
+		};
+	}
+}
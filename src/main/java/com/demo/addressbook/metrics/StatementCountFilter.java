@@ -0,0 +1,41 @@
+package com.demo.addressbook.metrics;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Records the Hibernate statements issued while handling each request, tagged like http.server.requests.
+// JDBC template statements and the body of streamed responses, which is written on another thread, are not counted.
+// Registered by MetricsConfig.
+public class StatementCountFilter extends OncePerRequestFilter {
+
+	static final String METRIC_NAME = "addressbook.request.statements";
+
+	MeterRegistry meterRegistry;
+
+	public StatementCountFilter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		StatementCountingInspector.reset();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			DistributionSummary.builder(METRIC_NAME).description("Hibernate statements per request")
+					.tag("method", request.getMethod()).tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+					.register(meterRegistry).record(StatementCountingInspector.count());
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.demo.addressbook.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the current thread; registered through
+// spring.jpa.properties.hibernate.session_factory.statement_inspector and read by StatementCountFilter
+@SuppressWarnings("serial")
+public class StatementCountingInspector implements StatementInspector {
+
+	private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.get()[0]++;
+		return sql;
+	}
+
+	public static void reset() {
+		STATEMENTS.get()[0] = 0;
+	}
+
+	public static long count() {
+		return STATEMENTS.get()[0];
+	}
+}
@@ -1,10 +1,26 @@
 package com.demo.addressbook.repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.demo.addressbook.entity.AddressBook;
 
 @Repository
 public interface AddressBookRepository extends JpaRepository<AddressBook, Long> {
+
+	// Served by the UC_ADDRESS_BOOK_NAME unique index on normalizedName
+	boolean existsByNormalizedName(String normalizedName);
+
+	// Fetch-join the contacts so that reading or rendering them costs no extra statements
+	@EntityGraph(attributePaths = "contacts")
+	Optional<AddressBook> findWithContactsByAddressBookId(Long addressBookId);
+
+	@EntityGraph(attributePaths = "contacts")
+	@Query("select ab from AddressBook ab")
+	List<AddressBook> findAllWithContacts();
 }
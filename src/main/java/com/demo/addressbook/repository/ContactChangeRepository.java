@@ -0,0 +1,16 @@
+package com.demo.addressbook.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.demo.addressbook.entity.ContactChange;
+
+@Repository
+public interface ContactChangeRepository extends JpaRepository<ContactChange, Long>, ContactChangeRepositoryCustom {
+
+	// Feed page served by the IDX_CONTACT_CHANGE_OFFSET index; rows without an offset yet are never returned
+	List<ContactChange> findByFeedOffsetGreaterThanOrderByFeedOffset(Long afterOffset, Limit limit);
+}
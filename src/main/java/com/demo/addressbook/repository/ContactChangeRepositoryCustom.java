@@ -0,0 +1,28 @@
+package com.demo.addressbook.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import com.demo.addressbook.entity.ContactChange;
+
+public interface ContactChangeRepositoryCustom {
+
+	// Appends one change row per contact with JDBC batch inserts, in the caller's transaction
+	void record(ContactChange.Type changeType, Long addressBookId, Collection<Long> contactIds);
+
+	// Numbers up to limit committed changes that have no feed offset yet, continuing after the last offset handed
+	// out. Must run in a transaction of its own: the contact_change_offset row lock is held until it commits, so
+	// offsets become visible in increasing order even though change ids were assigned before their commit.
+	// Returns the number of changes numbered.
+	int assignFeedOffsets(int limit);
+
+	// Deletes the numbered changes up to the highest offset recorded before changedBefore and returns how many
+	// were deleted. Whole offset prefixes are deleted, so that no change is missing below the earliest retained one.
+	int deleteChangedBefore(Instant changedBefore);
+
+	// Lowest offset still retained, or the next offset to be handed out when none is
+	long earliestFeedOffset();
+
+	// Last offset handed out
+	long lastFeedOffset();
+}
@@ -0,0 +1,92 @@
+package com.demo.addressbook.repository;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.demo.addressbook.entity.ContactChange;
+import com.demo.addressbook.entity.ContactChangeOffset;
+
+public class ContactChangeRepositoryCustomImpl implements ContactChangeRepositoryCustom {
+
+	private static final String INSERT_CHANGE = "insert into contact_change (change_type, contact_id, address_book_id, changed_at) values (?, ?, ?, ?)";
+	private static final String SELECT_UNNUMBERED_EXISTS = "select exists (select 1 from contact_change where feed_offset is null)";
+	private static final String LOCK_OFFSET = "select last_offset from contact_change_offset where id = ? for update";
+	private static final String SELECT_OFFSET = "select last_offset from contact_change_offset where id = ?";
+	private static final String SELECT_UNNUMBERED = "select id from contact_change where feed_offset is null order by id fetch first ? rows only";
+	private static final String UPDATE_CHANGE_OFFSET = "update contact_change set feed_offset = ? where id = ?";
+	private static final String UPDATE_OFFSET = "update contact_change_offset set last_offset = ? where id = ?";
+	private static final String DELETE_CHANGED_BEFORE = "delete from contact_change where feed_offset <= (select max(feed_offset) from contact_change where changed_at < ?)";
+	private static final String SELECT_EARLIEST_OFFSET = "select coalesce(min(feed_offset), (select last_offset + 1 from contact_change_offset where id = ?)) from contact_change";
+
+	JdbcTemplate jdbcTemplate;
+	int batchSize;
+
+	public ContactChangeRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+			@Value("${addressbook.import.batch-size:500}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void record(ContactChange.Type changeType, Long addressBookId, Collection<Long> contactIds) {
+		if (contactIds.isEmpty()) {
+			return;
+		}
+		OffsetDateTime changedAt = OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+		jdbcTemplate.batchUpdate(INSERT_CHANGE, contactIds, batchSize, (ps, contactId) -> {
+			ps.setString(1, changeType.name());
+			ps.setLong(2, contactId);
+			if (addressBookId == null) {
+				ps.setNull(3, Types.BIGINT);
+			} else {
+				ps.setLong(3, addressBookId);
+			}
+			ps.setObject(4, changedAt);
+		});
+	}
+
+	@Override
+	public int assignFeedOffsets(int limit) {
+		// Checked without the lock so that idle feed readers do not queue up on it
+		if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(SELECT_UNNUMBERED_EXISTS, Boolean.class))) {
+			return 0;
+		}
+		jdbcTemplate.queryForObject(LOCK_OFFSET, Long.class, ContactChangeOffset.ID);
+		// Re-read once the lock is held, so the offsets another replica committed while this one waited are seen
+		long lastOffset = jdbcTemplate.queryForObject(SELECT_OFFSET, Long.class, ContactChangeOffset.ID);
+		List<Long> ids = jdbcTemplate.queryForList(SELECT_UNNUMBERED, Long.class, limit);
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		List<Object[]> offsets = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			offsets.add(new Object[] { lastOffset + i + 1, ids.get(i) });
+		}
+		jdbcTemplate.batchUpdate(UPDATE_CHANGE_OFFSET, offsets);
+		jdbcTemplate.update(UPDATE_OFFSET, lastOffset + ids.size(), ContactChangeOffset.ID);
+		return ids.size();
+	}
+
+	@Override
+	public int deleteChangedBefore(Instant changedBefore) {
+		return jdbcTemplate.update(DELETE_CHANGED_BEFORE, OffsetDateTime.ofInstant(changedBefore, ZoneOffset.UTC));
+	}
+
+	@Override
+	public long earliestFeedOffset() {
+		return jdbcTemplate.queryForObject(SELECT_EARLIEST_OFFSET, Long.class, ContactChangeOffset.ID);
+	}
+
+	@Override
+	public long lastFeedOffset() {
+		return jdbcTemplate.queryForObject(SELECT_OFFSET, Long.class, ContactChangeOffset.ID);
+	}
+}
@@ -1,10 +1,55 @@
 package com.demo.addressbook.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.demo.addressbook.dto.ContactDto;
 import com.demo.addressbook.entity.Contact;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface ContactRepository extends JpaRepository<Contact, Long>  {
+public interface ContactRepository extends JpaRepository<Contact, Long>, ContactRepositoryCustom  {
+
+	// Served by the UC_NAME unique index on (firstName, lastName)
+	boolean existsByFirstNameAndLastName(String firstName, String lastName);
+
+	// Reverse lookup served by the IDX_CONTACT_NUMBER index; callers pass Contact.normalizeContactNumber output
+	List<Contact> findByNormalizedContactNumberOrderByContactId(String normalizedContactNumber);
+
+	// Set-based duplicate candidates for bulk imports; callers match exact first/last name pairs
+	List<Contact> findByFirstNameInAndLastNameIn(Collection<String> firstNames, Collection<String> lastNames);
+
+	@Query("select ab.name from AddressBook ab join ab.contacts c where c.firstName = :firstName and c.lastName = :lastName")
+	List<String> findAddressBookNamesByContactName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+	@Query(value = "select c from Contact c join c.addressBooks ab where ab.addressBookId = :addressBookId",
+			countQuery = "select count(c) from Contact c join c.addressBooks ab where ab.addressBookId = :addressBookId")
+	Page<Contact> findPageByAddressBookId(@Param("addressBookId") Long addressBookId, Pageable pageable);
+
+	// Keyset page: walks the join table in contactId order starting after the last id the client has seen
+	@Query("select c from Contact c join c.addressBooks ab where ab.addressBookId = :addressBookId and c.contactId > :afterContactId order by c.contactId")
+	List<Contact> findByAddressBookIdAfterContactId(@Param("addressBookId") Long addressBookId, @Param("afterContactId") Long afterContactId, Limit limit);
+
+	// Forward-only DTO projection of one address book's contacts, for streamed JSON responses
+	@QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("select new com.demo.addressbook.dto.ContactDto(c.contactId, c.firstName, c.lastName, c.orgName, c.email, c.contactNumber) from Contact c join c.addressBooks ab where ab.addressBookId = :addressBookId order by c.contactId")
+	Stream<ContactDto> streamByAddressBookIdAsDto(@Param("addressBookId") Long addressBookId);
+
+	// Forward-only DTO projection for exports; no entities are attached to the persistence context
+	@QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("select new com.demo.addressbook.dto.ContactDto(c.contactId, c.firstName, c.lastName, c.orgName, c.email, c.contactNumber) from Contact c order by c.contactId")
+	Stream<ContactDto> streamAllAsDto();
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.demo.addressbook.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.demo.addressbook.entity.Contact;
+
+public interface ContactRepositoryCustom {
+
+	// Persists new contacts using JDBC batch inserts, flushing and clearing the persistence context per batch
+	List<Long> saveAllInBatches(List<Contact> contacts);
+
+	// Inserts addressBookContact join rows directly, without initializing AddressBook.contacts
+	void linkToAddressBook(Long addressBookId, List<Long> contactIds);
+
+	// Links existing contacts to the address book with a single insert-select that skips unknown contact ids
+	// and links that already exist, without initializing AddressBook.contacts. Returns the ids of the contacts linked.
+	List<Long> linkExistingToAddressBook(Long addressBookId, Collection<Long> contactIds);
+
+	// Deletes the addressBookContact rows linking the contacts to the address book, without initializing
+	// AddressBook.contacts. Returns the ids of the contacts unlinked.
+	List<Long> unlinkFromAddressBook(Long addressBookId, Collection<Long> contactIds);
+
+	// Deletes those of the contacts that no longer belong to any address book and returns their ids
+	List<Long> deleteOrphans(Collection<Long> contactIds);
+
+	// Fills normalizedContactNumber for up to limit rows after afterContactId that lack it, in contactId order.
+	// Returns the last contactId examined, or -1 when no such rows remain.
+	long backfillNormalizedContactNumbers(long afterContactId, int limit);
+}
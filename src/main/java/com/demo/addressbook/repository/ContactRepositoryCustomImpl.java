@@ -0,0 +1,147 @@
+package com.demo.addressbook.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.demo.addressbook.entity.AddressBook;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.search.ContactSearchIndex;
+
+import jakarta.persistence.EntityManager;
+
+public class ContactRepositoryCustomImpl implements ContactRepositoryCustom {
+
+	private static final String INSERT_ADDRESS_BOOK_CONTACT = "insert into address_book_contact (address_book_id, contact_id) values (?, ?)";
+	// Data change delta tables (final table / old table) return the rows an insert or delete actually touched
+	private static final String INSERT_EXISTING_ADDRESS_BOOK_CONTACTS = "select contact_id from final table (insert into address_book_contact (address_book_id, contact_id) select :addressBookId, c.contact_id from contact c where c.contact_id in (:contactIds) and not exists (select 1 from address_book_contact abc where abc.address_book_id = :addressBookId and abc.contact_id = c.contact_id))";
+	private static final String DELETE_ADDRESS_BOOK_CONTACTS = "select contact_id from old table (delete from address_book_contact where address_book_id = :addressBookId and contact_id in (:contactIds))";
+	private static final String DELETE_ORPHANS = "select contact_id from old table (delete from contact c where c.contact_id in (:contactIds) and not exists (select 1 from address_book_contact abc where abc.contact_id = c.contact_id))";
+	private static final String SELECT_UNNORMALIZED_CONTACT_NUMBERS = "select contact_id, contact_number from contact where contact_id > ? and normalized_contact_number is null order by contact_id fetch first ? rows only";
+	private static final String UPDATE_NORMALIZED_CONTACT_NUMBER = "update contact set normalized_contact_number = ?, version = version + 1 where contact_id = ? and normalized_contact_number is null";
+
+	EntityManager entityManager;
+	JdbcTemplate jdbcTemplate;
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	ContactSearchIndex searchIndex;
+	int batchSize;
+
+	public ContactRepositoryCustomImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate, ContactSearchIndex searchIndex,
+			@Value("${addressbook.import.batch-size:500}") int batchSize) {
+		this.entityManager = entityManager;
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		this.searchIndex = searchIndex;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public List<Long> saveAllInBatches(List<Contact> contacts) {
+		List<Long> contactIds = new ArrayList<>(contacts.size());
+		for (int i = 0; i < contacts.size(); i++) {
+			Contact contact = contacts.get(i);
+			entityManager.persist(contact);
+			contactIds.add(contact.getContactId());
+			if ((i + 1) % batchSize == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+		return contactIds;
+	}
+
+	@Override
+	public void linkToAddressBook(Long addressBookId, List<Long> contactIds) {
+		jdbcTemplate.batchUpdate(INSERT_ADDRESS_BOOK_CONTACT, contactIds, batchSize, (ps, contactId) -> {
+			ps.setLong(1, addressBookId);
+			ps.setLong(2, contactId);
+		});
+		// The rows bypass Hibernate, so drop any second-level cached copy of the collection
+		secondLevelCache().evictCollectionData(AddressBook.class.getName() + ".contacts", addressBookId);
+	}
+
+	@Override
+	public List<Long> linkExistingToAddressBook(Long addressBookId, Collection<Long> contactIds) {
+		List<Long> linked = new ArrayList<>();
+		for (List<Long> chunk : chunks(contactIds)) {
+			linked.addAll(namedParameterJdbcTemplate.queryForList(INSERT_EXISTING_ADDRESS_BOOK_CONTACTS,
+					new MapSqlParameterSource("addressBookId", addressBookId).addValue("contactIds", chunk), Long.class));
+		}
+		evictAssociation(addressBookId, contactIds);
+		return linked;
+	}
+
+	@Override
+	public List<Long> unlinkFromAddressBook(Long addressBookId, Collection<Long> contactIds) {
+		List<Long> removed = new ArrayList<>();
+		for (List<Long> chunk : chunks(contactIds)) {
+			removed.addAll(namedParameterJdbcTemplate.queryForList(DELETE_ADDRESS_BOOK_CONTACTS,
+					new MapSqlParameterSource("addressBookId", addressBookId).addValue("contactIds", chunk), Long.class));
+		}
+		evictAssociation(addressBookId, contactIds);
+		return removed;
+	}
+
+	// The join rows bypass Hibernate, so drop second-level cached copies of both sides of the association
+	private void evictAssociation(Long addressBookId, Collection<Long> contactIds) {
+		Cache cache = secondLevelCache();
+		cache.evictCollectionData(AddressBook.class.getName() + ".contacts", addressBookId);
+		contactIds.forEach(contactId -> cache.evictCollectionData(Contact.class.getName() + ".addressBooks", contactId));
+	}
+
+	@Override
+	public List<Long> deleteOrphans(Collection<Long> contactIds) {
+		// The orphan condition is checked by the delete itself, so a contact linked concurrently is kept
+		List<Long> orphans = new ArrayList<>();
+		for (List<Long> chunk : chunks(contactIds)) {
+			orphans.addAll(namedParameterJdbcTemplate.queryForList(DELETE_ORPHANS,
+					new MapSqlParameterSource("contactIds", chunk), Long.class));
+		}
+		Cache cache = secondLevelCache();
+		for (Long contactId : orphans) {
+			cache.evictEntityData(Contact.class, contactId);
+			// Deleted without a Contact entity, so the search index listener is not notified
+			searchIndex.removeAfterCommit(contactId);
+		}
+		return orphans;
+	}
+
+	private List<List<Long>> chunks(Collection<Long> ids) {
+		List<Long> list = new ArrayList<>(ids);
+		List<List<Long>> chunks = new ArrayList<>();
+		for (int from = 0; from < list.size(); from += batchSize) {
+			chunks.add(list.subList(from, Math.min(from + batchSize, list.size())));
+		}
+		return chunks;
+	}
+
+	private Cache secondLevelCache() {
+		return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+	}
+
+	@Override
+	public long backfillNormalizedContactNumbers(long afterContactId, int limit) {
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_UNNORMALIZED_CONTACT_NUMBERS, afterContactId, limit);
+		if (rows.isEmpty()) {
+			return -1;
+		}
+		jdbcTemplate.batchUpdate(UPDATE_NORMALIZED_CONTACT_NUMBER, rows, batchSize, (ps, row) -> {
+			ps.setString(1, Contact.normalizeContactNumber((String) row.get("contact_number")));
+			ps.setLong(2, ((Number) row.get("contact_id")).longValue());
+		});
+		// The rows bypass Hibernate, so drop any second-level cached copies of the updated contacts
+		Cache cache = secondLevelCache();
+		rows.forEach(row -> cache.evictEntityData(Contact.class, ((Number) row.get("contact_id")).longValue()));
+		return ((Number) rows.get(rows.size() - 1).get("contact_id")).longValue();
+	}
+}
@@ -0,0 +1,359 @@
+package com.demo.addressbook.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.demo.addressbook.dto.ContactDto;
+
+// In-process inverted index over the searchable contact fields. Tokens are lower-cased alphanumeric runs;
+// the whole email and the digits of the contact number are indexed as extra tokens. Alphabetic tokens of
+// three or more characters are also indexed by their single-character deletions so that a query term one
+// edit away can be matched without scanning the term dictionary.
+@Component
+public class ContactSearchIndex {
+
+	static final int MIN_FUZZY_LENGTH = 3;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+	private Map<String, Set<String>> tokensByDeletion = new HashMap<>();
+	private Map<Long, String[]> tokensByContact = new HashMap<>();
+	// Index being loaded by rebuild; changes applied meanwhile are applied to it too, and the loader skips the
+	// contacts they touched so that its older snapshot cannot bring back a removed or outdated entry
+	private ContactSearchIndex replacement;
+	private Set<Long> changedDuringRebuild;
+	private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+	// Told which contacts a transaction changed once it has committed, e.g. to propagate them to other replicas.
+	// Direct add and remove calls, such as rebuilds or changes received from elsewhere, are not reported.
+	// Called from afterCompletion, so any transactional work must run in a new transaction.
+	public interface ChangeListener {
+		void committed(Set<Long> contactIds);
+	}
+
+	public void addChangeListener(ChangeListener listener) {
+		changeListeners.add(listener);
+	}
+
+	// Indexing is idempotent: a contact that is already indexed is re-indexed with its current values
+	public void add(ContactDto contact) {
+		String[] tokens = tokenize(contact).toArray(String[]::new);
+		lock.writeLock().lock();
+		try {
+			removeTokens(contact.contactId());
+			tokensByContact.put(contact.contactId(), tokens);
+			for (String token : tokens) {
+				Set<Long> ids = postings.computeIfAbsent(token, k -> new HashSet<>());
+				if (ids.isEmpty() && isFuzzyToken(token)) {
+					for (String deletion : deletions(token)) {
+						tokensByDeletion.computeIfAbsent(deletion, k -> new HashSet<>()).add(token);
+					}
+				}
+				ids.add(contact.contactId());
+			}
+			if (replacement != null) {
+				replacement.add(contact);
+				changedDuringRebuild.add(contact.contactId());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long contactId) {
+		lock.writeLock().lock();
+		try {
+			removeTokens(contactId);
+			if (replacement != null) {
+				replacement.remove(contactId);
+				changedDuringRebuild.add(contactId);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Inside a transaction the change is applied once it commits, so a rolled back write is never searchable
+	public void addAfterCommit(ContactDto contact) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			pendingChanges().added.put(contact.contactId(), contact);
+		} else {
+			add(contact);
+		}
+	}
+
+	public void removeAfterCommit(Long contactId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			PendingChanges pending = pendingChanges();
+			pending.added.remove(contactId);
+			pending.removed.add(contactId);
+		} else {
+			remove(contactId);
+		}
+	}
+
+	// Loads a new index from loader while searches keep using the current entries, then swaps it in, so the
+	// index is never seen empty or half loaded. If loader fails, the current entries stay in place.
+	public synchronized void rebuild(Consumer<Consumer<ContactDto>> loader) {
+		ContactSearchIndex loading = new ContactSearchIndex();
+		lock.writeLock().lock();
+		try {
+			replacement = loading;
+			changedDuringRebuild = new HashSet<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		boolean loaded = false;
+		try {
+			// The read lock keeps the check and the add atomic with respect to concurrent add and remove calls
+			loader.accept(contact -> {
+				lock.readLock().lock();
+				try {
+					if (!changedDuringRebuild.contains(contact.contactId())) {
+						loading.add(contact);
+					}
+				} finally {
+					lock.readLock().unlock();
+				}
+			});
+			loaded = true;
+		} finally {
+			lock.writeLock().lock();
+			try {
+				if (loaded) {
+					postings = loading.postings;
+					tokensByDeletion = loading.tokensByDeletion;
+					tokensByContact = loading.tokensByContact;
+				}
+				replacement = null;
+				changedDuringRebuild = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return tokensByContact.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Returns the ids of up to limit contacts matching every query term. A term matches a token that equals
+	// it or starts with it, or with fuzzy set, one that is a single edit away. Contacts matching the most
+	// selective term exactly are returned first, then prefix matches, then fuzzy matches.
+	public List<Long> search(String query, boolean fuzzy, int limit) {
+		List<String> terms = new ArrayList<>(tokenize(query));
+		if (terms.isEmpty()) {
+			return List.of();
+		}
+		// Longer terms match fewer tokens, so drive the lookup from the longest one
+		terms.sort((a, b) -> Integer.compare(b.length(), a.length()));
+		String driver = terms.get(0);
+		List<String> filters = terms.subList(1, terms.size());
+
+		lock.readLock().lock();
+		try {
+			Set<Long> result = new LinkedHashSet<>();
+			if (postings.containsKey(driver) && collect(driver, filters, fuzzy, result, limit)) {
+				return new ArrayList<>(result);
+			}
+			for (String token : postings.subMap(driver, false, driver + Character.MAX_VALUE, false).keySet()) {
+				if (collect(token, filters, fuzzy, result, limit)) {
+					return new ArrayList<>(result);
+				}
+			}
+			if (fuzzy) {
+				for (String token : fuzzyTokens(driver)) {
+					if (collect(token, filters, fuzzy, result, limit)) {
+						break;
+					}
+				}
+			}
+			return new ArrayList<>(result);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Adds the contacts posted under token that match the remaining terms; returns true once limit is reached
+	private boolean collect(String token, List<String> filters, boolean fuzzy, Set<Long> result, int limit) {
+		for (Long contactId : postings.get(token)) {
+			if (!result.contains(contactId) && matchesAll(tokensByContact.get(contactId), filters, fuzzy)) {
+				result.add(contactId);
+				if (result.size() == limit) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// Tokens within one edit of term: those sharing term or one of its deletions as a deletion key
+	private Set<String> fuzzyTokens(String term) {
+		Set<String> tokens = new LinkedHashSet<>();
+		if (!isFuzzyToken(term)) {
+			return tokens;
+		}
+		List<String> keys = new ArrayList<>(deletions(term));
+		keys.add(0, term);
+		for (String key : keys) {
+			tokens.addAll(tokensByDeletion.getOrDefault(key, Set.of()));
+			if (postings.containsKey(key)) {
+				tokens.add(key);
+			}
+		}
+		tokens.removeIf(token -> token.startsWith(term) || !withinOneEdit(term, token));
+		return tokens;
+	}
+
+	private static boolean matchesAll(String[] tokens, List<String> terms, boolean fuzzy) {
+		for (String term : terms) {
+			boolean matched = false;
+			for (String token : tokens) {
+				if (token.startsWith(term) || (fuzzy && isFuzzyToken(term) && withinOneEdit(term, token))) {
+					matched = true;
+					break;
+				}
+			}
+			if (!matched) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void removeTokens(Long contactId) {
+		String[] tokens = tokensByContact.remove(contactId);
+		if (tokens == null) {
+			return;
+		}
+		for (String token : tokens) {
+			Set<Long> ids = postings.get(token);
+			ids.remove(contactId);
+			if (ids.isEmpty()) {
+				postings.remove(token);
+				if (isFuzzyToken(token)) {
+					for (String deletion : deletions(token)) {
+						Set<String> deletionTokens = tokensByDeletion.get(deletion);
+						deletionTokens.remove(token);
+						if (deletionTokens.isEmpty()) {
+							tokensByDeletion.remove(deletion);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private PendingChanges pendingChanges() {
+		PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			pending = new PendingChanges();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					PendingChanges completed = (PendingChanges) TransactionSynchronizationManager
+							.unbindResource(ContactSearchIndex.this);
+					if (status == STATUS_COMMITTED) {
+						completed.removed.forEach(ContactSearchIndex.this::remove);
+						completed.added.values().forEach(ContactSearchIndex.this::add);
+						if (!changeListeners.isEmpty()) {
+							Set<Long> contactIds = new HashSet<>(completed.added.keySet());
+							contactIds.addAll(completed.removed);
+							changeListeners.forEach(listener -> listener.committed(contactIds));
+						}
+					}
+				}
+			});
+		}
+		return pending;
+	}
+
+	static Set<String> tokenize(ContactDto contact) {
+		Set<String> tokens = new LinkedHashSet<>();
+		tokens.addAll(tokenize(contact.firstName()));
+		tokens.addAll(tokenize(contact.lastName()));
+		tokens.addAll(tokenize(contact.orgName()));
+		tokens.addAll(tokenize(contact.email()));
+		tokens.addAll(tokenize(contact.contactNumber()));
+		if (contact.email() != null && !contact.email().isBlank()) {
+			tokens.add(contact.email().trim().toLowerCase(Locale.ROOT));
+		}
+		if (contact.contactNumber() != null) {
+			String digits = contact.contactNumber().replaceAll("[^0-9]", "");
+			if (!digits.isEmpty()) {
+				tokens.add(digits);
+			}
+		}
+		return tokens;
+	}
+
+	static Set<String> tokenize(String text) {
+		Set<String> tokens = new LinkedHashSet<>();
+		if (text == null) {
+			return tokens;
+		}
+		for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private static boolean isFuzzyToken(String token) {
+		return token.length() >= MIN_FUZZY_LENGTH && token.chars().allMatch(Character::isLetter);
+	}
+
+	private static Collection<String> deletions(String token) {
+		Set<String> deletions = new HashSet<>();
+		for (int i = 0; i < token.length(); i++) {
+			deletions.add(token.substring(0, i) + token.substring(i + 1));
+		}
+		return deletions;
+	}
+
+	// Levenshtein distance of at most one: a single substitution, insertion or deletion
+	static boolean withinOneEdit(String a, String b) {
+		if (Math.abs(a.length() - b.length()) > 1) {
+			return false;
+		}
+		String shorter = a.length() <= b.length() ? a : b;
+		String longer = shorter == a ? b : a;
+		int i = 0;
+		while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+			i++;
+		}
+		if (shorter.length() == longer.length()) {
+			return i == shorter.length() || shorter.substring(i + 1).equals(longer.substring(i + 1));
+		}
+		return shorter.substring(i).equals(longer.substring(i + 1));
+	}
+
+	private static final class PendingChanges {
+		final Map<Long, ContactDto> added = new HashMap<>();
+		final Set<Long> removed = new HashSet<>();
+	}
+}
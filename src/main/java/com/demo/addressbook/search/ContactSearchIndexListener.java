@@ -0,0 +1,35 @@
+package com.demo.addressbook.search;
+
+import org.springframework.stereotype.Component;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.Contact;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA entity listener on Contact, resolved by Hibernate through the Spring bean container.
+// Every path that persists or deletes a Contact entity keeps the search index in sync;
+// writes that bypass the persistence context must update the index themselves.
+@Component
+public class ContactSearchIndexListener {
+
+	ContactSearchIndex searchIndex;
+
+	public ContactSearchIndexListener(ContactSearchIndex searchIndex) {
+		this.searchIndex = searchIndex;
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void indexContact(Contact contact) {
+		searchIndex.addAfterCommit(new ContactDto(contact.getContactId(), contact.getFirstName(), contact.getLastName(),
+				contact.getOrgName(), contact.getEmail(), contact.getContactNumber()));
+	}
+
+	@PostRemove
+	public void removeContact(Contact contact) {
+		searchIndex.removeAfterCommit(contact.getContactId());
+	}
+}
@@ -1,34 +1,89 @@
 package com.demo.addressbook.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.Iterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.springframework.beans.BeanUtils;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.dto.ContactImportResult;
+import com.demo.addressbook.dto.ContactImportResult.RowFailure;
 import com.demo.addressbook.entity.AddressBook;
 import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.entity.ContactChange;
 import com.demo.addressbook.exception.InputValidationException;
 import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactChangeRepository;
 import com.demo.addressbook.repository.ContactRepository;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
 @Service
+@Timed(value = "addressbook.service", description = "Service operations, tagged by class and method")
 public class AddressBookService {
 
+	static final int MAX_PAGE_SIZE = 1000;
+
+	static final int IMPORT_LOOKUP_CHUNK_SIZE = 1000;
+	public static final String CONTACTS_CACHE = "addressBookContacts";
+	private static final String CONTACTS_CACHE_KEY = "#addressBookId?.trim()";
+	private static final String CONTACTS_CACHE_CONDITION = "#addressBookId != null";
+
 	AddressBookRepository repository;
 	ContactRepository contactRepository;
+	// Every contact mutation appends its changes to the change feed in the same transaction
+	ContactChangeRepository changeRepository;
+	Validator validator;
+	Counter duplicateAddressBooks;
+	Counter duplicateContacts;
+	Counter addressBookNotFound;
+	Counter contactNotFound;
 
-	public AddressBookService(AddressBookRepository repository, ContactRepository contactRepository) {
+	public AddressBookService(AddressBookRepository repository, ContactRepository contactRepository,
+			ContactChangeRepository changeRepository, Validator validator, MeterRegistry meterRegistry) {
 		this.repository = repository;
 		this.contactRepository = contactRepository;
+		this.changeRepository = changeRepository;
+		this.validator = validator;
+		this.duplicateAddressBooks = rejectionCounter(meterRegistry, "addressbook.duplicate.rejections", "addressBook");
+		this.duplicateContacts = rejectionCounter(meterRegistry, "addressbook.duplicate.rejections", "contact");
+		this.addressBookNotFound = rejectionCounter(meterRegistry, "addressbook.not.found", "addressBook");
+		this.contactNotFound = rejectionCounter(meterRegistry, "addressbook.not.found", "contact");
+	}
+
+	private static Counter rejectionCounter(MeterRegistry meterRegistry, String name, String entity) {
+		return Counter.builder(name).tag("entity", entity).register(meterRegistry);
 	}
 
+	@RetryOnConflict
 	@Transactional
 	public AddressBook addAddressBook(String name) {
 		if (name == null || name.trim().isEmpty()) {
@@ -36,136 +91,312 @@ public class AddressBookService {
 		}
 		
 		//Check if Address Book with same name already exists
-		boolean addressBookExists = repository.findAll().stream().anyMatch(ab -> ab.getName().toLowerCase().equalsIgnoreCase(name.trim().toLowerCase()));
-		if (addressBookExists) {
+		if (repository.existsByNormalizedName(AddressBook.normalizeName(name))) {
+			duplicateAddressBooks.increment();
 			throw new DataIntegrityViolationException("Address Book with same name already exists");
 		}
 		AddressBook addressBook = new AddressBook(name.trim());
-		return repository.save(addressBook);
+		// Flush so that a concurrent create of the same name fails here on UC_ADDRESS_BOOK_NAME
+		return repository.saveAndFlush(addressBook);
 	}
 
+	@RetryOnConflict
 	@Transactional
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
 	public String addContact(String addressBookId, ContactDto contact) {
 		if (addressBookId == null || addressBookId.trim().isEmpty()) {
-			throw new InputValidationException("Address Book Id is required");
+			throw InputValidationException.ADDRESS_BOOK_ID_REQUIRED;
 		}
 		if (contact == null || (contact.firstName() == null || contact.firstName().trim().isEmpty())
 				|| (contact.lastName() == null || contact.lastName().trim().isEmpty())) {
 			throw new InputValidationException("Contact Number is required");
 		}
 
-		// Check if contact already exists in DB
-		List<Contact> contacts = contactRepository.findAll();
-		Contact existingContact = null;
-		if (!contacts.isEmpty()) {
-			boolean anyContactExists = contacts.stream().anyMatch(c -> c.getFirstName().equals(contact.firstName().trim())
-					&& c.getLastName().equals(contact.lastName().trim()));
-			if (anyContactExists) {
-				existingContact = contacts.stream().filter(c -> c.getFirstName().equals(contact.firstName().trim())
-						&& c.getLastName().equals(contact.lastName().trim())).findFirst().get();
-			}
-		}
-
-		if (existingContact != null) {
-			String addressbookNames = existingContact.getAddressBooks().stream().map(AddressBook::getName)
-					.collect(Collectors.joining(", "));
+		// Check if contact already exists in DB using the unique name index
+		String firstName = contact.firstName().trim();
+		String lastName = contact.lastName().trim();
+		if (contactRepository.existsByFirstNameAndLastName(firstName, lastName)) {
+			String addressbookNames = String.join(", ",
+					contactRepository.findAddressBookNamesByContactName(firstName, lastName));
+			duplicateContacts.increment();
 			throw new DataIntegrityViolationException(
 					"Contact with same First Name and Last Name already exists in Address Book: " + addressbookNames);
 		}
 
+		Long id = validateAddressBookId(addressBookId);
 		Contact contactEntity = new Contact();
 		BeanUtils.copyProperties(contact, contactEntity);
-		Optional<AddressBook> optionalAddressBook = repository.findById(Long.valueOf(addressBookId.trim()));
-		if (optionalAddressBook.isEmpty()) {
-			throw new InputValidationException("Address Book not found");
-		}
-		AddressBook addressBook = optionalAddressBook.get();
-		addressBook.getContacts().add(contactEntity);
-		repository.save(addressBook);
+
+		// Insert the contact and its join row directly: concurrent adds to one address book neither load its
+		// contacts collection nor update its row, so they do not conflict
+		List<Long> contactIds = contactRepository.saveAllInBatches(List.of(contactEntity));
+		contactRepository.linkToAddressBook(id, contactIds);
+		recordAdded(id, contactIds);
 		return "Contact added to Address Book";
 	}
 
+	@RetryOnConflict
+	@Transactional
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
+	public ContactImportResult importContacts(String addressBookId, List<ContactDto> contacts) {
+		List<Integer> rows = contacts == null ? List.of()
+				: IntStream.rangeClosed(1, contacts.size()).boxed().toList();
+		return importContacts(addressBookId, contacts, rows, List.of());
+	}
+
+	@RetryOnConflict
 	@Transactional
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
+	public ContactImportResult importContactsFromCsv(String addressBookId, String csv) {
+		ContactCsvParser.ParsedCsv parsed = ContactCsvParser.parse(csv);
+		return importContacts(addressBookId, parsed.contacts(), parsed.lines(), parsed.failures());
+	}
+
+	// rows holds the number each contact is reported under; parseFailures are rows already rejected by the parser
+	private ContactImportResult importContacts(String addressBookId, List<ContactDto> contacts, List<Integer> rows,
+			List<RowFailure> parseFailures) {
+		Long id = validateAddressBookId(addressBookId);
+		if ((contacts == null || contacts.isEmpty()) && parseFailures.isEmpty()) {
+			throw new InputValidationException("At least one contact is required");
+		}
+
+		// Validate each row and drop names repeated within the import itself
+		List<RowFailure> failures = new ArrayList<>(parseFailures);
+		Map<String, Integer> rowByName = new HashMap<>();
+		List<ContactDto> candidates = new ArrayList<>();
+		List<Integer> candidateRows = new ArrayList<>();
+		for (int i = 0; i < contacts.size(); i++) {
+			int row = rows.get(i);
+			ContactDto contact = contacts.get(i);
+			if (contact == null) {
+				failures.add(new RowFailure(row, "Contact is required"));
+				continue;
+			}
+			Set<ConstraintViolation<ContactDto>> violations = validator.validate(contact);
+			if (!violations.isEmpty()) {
+				failures.add(new RowFailure(row, violations.stream().map(ConstraintViolation::getMessage).sorted()
+						.collect(Collectors.joining(", "))));
+				continue;
+			}
+			Integer firstRow = rowByName.putIfAbsent(nameKey(contact.firstName(), contact.lastName()), row);
+			if (firstRow != null) {
+				failures.add(new RowFailure(row, "Duplicate of row " + firstRow + " in import"));
+				continue;
+			}
+			candidates.add(contact);
+			candidateRows.add(row);
+		}
+
+		Set<String> existingNames = findExistingNames(candidates);
+		List<Contact> newContacts = new ArrayList<>(candidates.size());
+		for (int i = 0; i < candidates.size(); i++) {
+			ContactDto contact = candidates.get(i);
+			if (existingNames.contains(nameKey(contact.firstName(), contact.lastName()))) {
+				duplicateContacts.increment();
+				failures.add(new RowFailure(candidateRows.get(i), "Contact with same First Name and Last Name already exists"));
+				continue;
+			}
+			newContacts.add(new Contact(contact.firstName().trim(), contact.lastName().trim(), contact.orgName(),
+					contact.email(), contact.contactNumber()));
+		}
+
+		if (!newContacts.isEmpty()) {
+			List<Long> contactIds = contactRepository.saveAllInBatches(newContacts);
+			contactRepository.linkToAddressBook(id, contactIds);
+			recordAdded(id, contactIds);
+		}
+		failures.sort((a, b) -> Integer.compare(a.row(), b.row()));
+		return new ContactImportResult(newContacts.size(), failures);
+	}
+
+	// Looks up already stored names in chunks so each query stays a bounded IN list
+	private Set<String> findExistingNames(List<ContactDto> contacts) {
+		Set<String> existingNames = new HashSet<>();
+		for (int from = 0; from < contacts.size(); from += IMPORT_LOOKUP_CHUNK_SIZE) {
+			List<ContactDto> chunk = contacts.subList(from, Math.min(from + IMPORT_LOOKUP_CHUNK_SIZE, contacts.size()));
+			Set<String> firstNames = chunk.stream().map(c -> c.firstName().trim()).collect(Collectors.toSet());
+			Set<String> lastNames = chunk.stream().map(c -> c.lastName().trim()).collect(Collectors.toSet());
+			for (Contact existing : contactRepository.findByFirstNameInAndLastNameIn(firstNames, lastNames)) {
+				existingNames.add(nameKey(existing.getFirstName(), existing.getLastName()));
+			}
+		}
+		return existingNames;
+	}
+
+	private static String nameKey(String firstName, String lastName) {
+		return firstName.trim() + '\u0000' + lastName.trim();
+	}
+
+	// A concurrent insert of the same link fails with a duplicate key; the retried insert-select then skips it
+	@RetryOnConflict({ ConcurrencyFailureException.class, DuplicateKeyException.class })
+	@Transactional
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
 	public String addExistingContact(String addressBookId, String contactId) {
 		if (addressBookId == null || addressBookId.trim().isEmpty()) {
-			throw new InputValidationException("Address Book Id is required");
+			throw InputValidationException.ADDRESS_BOOK_ID_REQUIRED;
 		}
 		if (contactId == null || contactId.trim().isEmpty()) {
 			throw new InputValidationException("Contact Id is required");
 		}
 
-		Optional<Contact> optExistingContact = contactRepository.findById(Long.valueOf(contactId.trim()));
-		if (optExistingContact.isEmpty()) {
-			throw new InputValidationException("Contact not found");
+		Long id = Long.valueOf(contactId.trim());
+		if (!contactRepository.existsById(id)) {
+			contactNotFound.increment();
+			throw InputValidationException.CONTACT_NOT_FOUND;
 		}
 
-		Contact existingContact = optExistingContact.get();
-		Optional<AddressBook> optionalAddressBook = repository.findById(Long.valueOf(addressBookId.trim()));
-		if (optionalAddressBook.isEmpty()) {
-			throw new InputValidationException("Address Book not found");
+		// Insert the join row directly; an existing link is left as it is
+		Long bookId = validateAddressBookId(addressBookId);
+		changeRepository.record(ContactChange.Type.LINKED, bookId,
+				contactRepository.linkExistingToAddressBook(bookId, List.of(id)));
+
+		return "Contact added to Address Book";
+	}
+
+	// Unknown contact ids and contacts already in the address book are skipped; returns the number of contacts added
+	@RetryOnConflict({ ConcurrencyFailureException.class, DuplicateKeyException.class })
+	@Transactional
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
+	public int addExistingContacts(String addressBookId, List<Long> contactIds) {
+		Long id = validateAddressBookId(addressBookId);
+		if (contactIds == null || contactIds.isEmpty()) {
+			throw new InputValidationException("At least one contact is required");
 		}
+		Set<Long> ids = contactIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		List<Long> linked = contactRepository.linkExistingToAddressBook(id, ids);
+		changeRepository.record(ContactChange.Type.LINKED, id, linked);
+		return linked.size();
+	}
 
-		AddressBook addressBook = optionalAddressBook.get();
-		addressBook.getContacts().add(existingContact);
-		repository.save(addressBook);
+	private void recordAdded(Long addressBookId, List<Long> contactIds) {
+		changeRepository.record(ContactChange.Type.CREATED, null, contactIds);
+		changeRepository.record(ContactChange.Type.LINKED, addressBookId, contactIds);
+	}
 
-		return "Contact added to Address Book";
+	private void recordUnlinkedAndDeleteOrphans(Long addressBookId, List<Long> unlinked) {
+		changeRepository.record(ContactChange.Type.UNLINKED, addressBookId, unlinked);
+		// Since it is ManyToMany Mapping and Contact is not the owner, it has to be
+		// explicitly deleted if it has become an orphan
+		changeRepository.record(ContactChange.Type.DELETED, null, contactRepository.deleteOrphans(unlinked));
+	}
+
+	// Drops the cached contacts of an address book, e.g. after queued writes to it committed in a group
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
+	public void evictContacts(String addressBookId) {
 	}
 
+	// Cached per address book; the set is copied so it can be served outside the loading session
 	@Transactional(readOnly = true)
+	@Cacheable(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
 	public Set<Contact> findAllContactsByAddressBookId(String addressBookId) {
 		if (addressBookId == null || addressBookId.trim().isEmpty()) {
-			throw new InputValidationException("Address Book Id is required");
+			throw InputValidationException.ADDRESS_BOOK_ID_REQUIRED;
 		}
-		Optional<AddressBook> optionalAddressBook = repository.findById(Long.valueOf(addressBookId.trim()));
+		Optional<AddressBook> optionalAddressBook = repository.findWithContactsByAddressBookId(Long.valueOf(addressBookId.trim()));
 		if (optionalAddressBook.isEmpty()) {
-			throw new InputValidationException("Address Book not found");
+			addressBookNotFound.increment();
+			throw InputValidationException.ADDRESS_BOOK_NOT_FOUND;
 		}
 		AddressBook addressBook = optionalAddressBook.get();
-		return addressBook.getContacts();
+		return Collections.unmodifiableSet(new HashSet<>(addressBook.getContacts()));
 	}
 
+	// Streams the address book's contacts in contactId order as DTOs, without hydrating entities.
+	// Returns the number of contacts handed to the consumer.
+	@Transactional(readOnly = true)
+	public long exportContactsByAddressBookId(String addressBookId, Consumer<ContactDto> consumer) {
+		Long id = validateAddressBookId(addressBookId);
+		long count = 0;
+		try (Stream<ContactDto> contacts = contactRepository.streamByAddressBookIdAsDto(id)) {
+			Iterator<ContactDto> iterator = contacts.iterator();
+			while (iterator.hasNext()) {
+				consumer.accept(iterator.next());
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// Lets callers that stream a response body reject an unknown address book before the response is committed
+	public void requireAddressBook(String addressBookId) {
+		validateAddressBookId(addressBookId);
+	}
+
+	@Transactional(readOnly = true)
+	public Page<Contact> findContactsByAddressBookId(String addressBookId, int page, int size) {
+		Long id = validateAddressBookId(addressBookId);
+		if (page < 0) {
+			throw new InputValidationException("Page must not be negative");
+		}
+		validatePageSize(size);
+		return contactRepository.findPageByAddressBookId(id, PageRequest.of(page, size, Sort.by("contactId")));
+	}
+
+	@Transactional(readOnly = true)
+	public List<Contact> findContactsByAddressBookIdAfter(String addressBookId, long afterContactId, int size) {
+		Long id = validateAddressBookId(addressBookId);
+		validatePageSize(size);
+		return contactRepository.findByAddressBookIdAfterContactId(id, afterContactId, Limit.of(size));
+	}
+
+	private Long validateAddressBookId(String addressBookId) {
+		if (addressBookId == null || addressBookId.trim().isEmpty()) {
+			throw InputValidationException.ADDRESS_BOOK_ID_REQUIRED;
+		}
+		Long id = Long.valueOf(addressBookId.trim());
+		if (!repository.existsById(id)) {
+			addressBookNotFound.increment();
+			throw InputValidationException.ADDRESS_BOOK_NOT_FOUND;
+		}
+		return id;
+	}
+
+	private void validatePageSize(int size) {
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			throw new InputValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+	}
+
+	@RetryOnConflict
 	@Transactional
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
 	public String removeContactByAddressBookId(String addressBookId, ContactDto contact) {
 		if (addressBookId == null || addressBookId.trim().isEmpty()) {
-			throw new InputValidationException("Address Book Id is required");
+			throw InputValidationException.ADDRESS_BOOK_ID_REQUIRED;
 		}
 		if (contact == null || contact.contactId() == null) {
 			throw new InputValidationException("Contact is required");
 		}
-		Contact contactEntity = new Contact();
-		BeanUtils.copyProperties(contact, contactEntity);
-		Optional<AddressBook> optionalAddressBook = repository.findById(Long.valueOf(addressBookId.trim()));
-		if (optionalAddressBook.isEmpty()) {
-			throw new InputValidationException("Address Book not found");
-		}
+		Long id = validateAddressBookId(addressBookId);
 
-		AddressBook addressBook = optionalAddressBook.get();
-		boolean contactExistsInAddressBook = addressBook.getContacts().stream()
-				.anyMatch(c -> contact.contactId() != null && c.getContactId().longValue() == (contact.contactId().longValue()));
-		if (contactExistsInAddressBook) {
-			// Use iterator to remove while iterating to avoid ConcurrentModificationException
-			Iterator<Contact> iterator = addressBook.getContacts().iterator();
-			while (iterator.hasNext()) {
-				Contact c = iterator.next();
-				if (contact.contactId() != null && c.getContactId().longValue() == contact.contactId().longValue()) {
-					iterator.remove();
-					c.getAddressBooks().remove(addressBook);
-				}
-			}
-			repository.save(addressBook);
-
-			// Since it is ManyToMany Mapping and Contact is not the owner, it has to be
-			// explicitly deleted if it has become and orphan
-			Contact contactFromDb = contactRepository.findById(contact.contactId()).get();
-
-			if (contactFromDb.getAddressBooks().isEmpty()) {
-				contactRepository.deleteById(contactFromDb.getContactId());
-			}
-		} else {
-			throw new InputValidationException("Contact not found in Address Book");
+		// Delete the join row directly instead of loading and rewriting the whole contacts collection
+		List<Long> unlinked = contactRepository.unlinkFromAddressBook(id, List.of(contact.contactId()));
+		if (unlinked.isEmpty()) {
+			contactNotFound.increment();
+			throw InputValidationException.CONTACT_NOT_IN_ADDRESS_BOOK;
 		}
+		recordUnlinkedAndDeleteOrphans(id, unlinked);
 
 		return "Successfully removed contact from Address Book";
 	}
+
+	// Contact ids that are not in the address book are ignored; returns the number of contacts removed
+	@RetryOnConflict
+	@Transactional
+	@CacheEvict(cacheNames = CONTACTS_CACHE, key = CONTACTS_CACHE_KEY, condition = CONTACTS_CACHE_CONDITION)
+	public int removeContactsByAddressBookId(String addressBookId, List<Long> contactIds) {
+		Long id = validateAddressBookId(addressBookId);
+		if (contactIds == null || contactIds.isEmpty()) {
+			throw new InputValidationException("At least one contact is required");
+		}
+		Set<Long> ids = contactIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+		List<Long> removed = ids.isEmpty() ? List.of() : contactRepository.unlinkFromAddressBook(id, ids);
+		if (!removed.isEmpty()) {
+			recordUnlinkedAndDeleteOrphans(id, removed);
+		}
+		return removed.size();
+	}
 }
@@ -0,0 +1,158 @@
+package com.demo.addressbook.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.addressbook.dto.ChangeFeedPage;
+import com.demo.addressbook.dto.ContactChangeDto;
+import com.demo.addressbook.exception.ChangeFeedGapException;
+import com.demo.addressbook.repository.ContactChangeRepository;
+
+// Cursor-based feed of the contact changes recorded by AddressBookService. A consumer passes the offset of the
+// last change it processed and gets only the changes committed after it, optionally waiting for the next one
+// (long poll), instead of re-reading every contact to find out what changed. Waiting readers hold no thread:
+// a single poller checks the last offset for all of them and completes those that have new changes.
+@Service
+public class ChangeFeedService implements DisposableBean {
+
+	public static final int MAX_FEED_SIZE = 1000;
+	public static final int MAX_WAIT_SECONDS = 30;
+	private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChangeFeedService.class);
+
+	ContactChangeRepository changeRepository;
+	TransactionTemplate transactionTemplate;
+	Duration retention;
+
+	private final AtomicLong nextPurge = new AtomicLong(System.nanoTime());
+	private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+	private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+			Thread.ofPlatform().name("change-feed-poller").daemon().factory());
+
+	public ChangeFeedService(ContactChangeRepository changeRepository, PlatformTransactionManager transactionManager,
+			@Value("${addressbook.change-feed.poll-interval:100ms}") Duration pollInterval,
+			@Value("${addressbook.change-feed.retention:7d}") Duration retention) {
+		this.changeRepository = changeRepository;
+		// Offsets are assigned in a short transaction of their own so that the offset lock is released at once
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.retention = retention;
+		poller.scheduleWithFixedDelay(this::pollWaiters, pollInterval.toMillis(), pollInterval.toMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	// Returns up to limit changes after afterOffset without waiting. Throws ChangeFeedGapException when changes
+	// following afterOffset have been purged, as the consumer would otherwise skip them without noticing.
+	public ChangeFeedPage getChanges(long afterOffset, int limit) {
+		assignFeedOffsets();
+		ChangeFeedPage page = readPage(afterOffset, limit);
+		purgeExpired();
+		return page;
+	}
+
+	// As getChanges, but when there is no change yet the returned future completes once one is committed or
+	// wait has passed, with an empty page in the latter case
+	public CompletableFuture<ChangeFeedPage> awaitChanges(long afterOffset, int limit, Duration wait) {
+		ChangeFeedPage page;
+		try {
+			page = getChanges(afterOffset, limit);
+		} catch (ChangeFeedGapException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		if (!page.changes().isEmpty() || wait.isZero()) {
+			return CompletableFuture.completedFuture(page);
+		}
+		Waiter waiter = new Waiter(afterOffset, limit, System.nanoTime() + wait.toNanos(), new CompletableFuture<>());
+		waiters.add(waiter);
+		return waiter.result();
+	}
+
+	private ChangeFeedPage readPage(long afterOffset, int limit) {
+		List<ContactChangeDto> changes = changeRepository
+				.findByFeedOffsetGreaterThanOrderByFeedOffset(afterOffset, Limit.of(limit)).stream()
+				.map(ContactChangeDto::of).toList();
+		// Offsets are contiguous, so only a page that does not start right after afterOffset can follow a gap.
+		// Offset 0 asks for the oldest retained change and never has one.
+		if (afterOffset > 0 && (changes.isEmpty() || changes.get(0).offset() != afterOffset + 1)) {
+			long earliestOffset = changeRepository.earliestFeedOffset();
+			if (afterOffset + 1 < earliestOffset) {
+				throw new ChangeFeedGapException(earliestOffset);
+			}
+		}
+		return new ChangeFeedPage(changes, changes.isEmpty() ? afterOffset : changes.get(changes.size() - 1).offset());
+	}
+
+	// One last offset read per poll interval serves every waiting reader, however many there are
+	void pollWaiters() {
+		if (waiters.isEmpty()) {
+			return;
+		}
+		try {
+			assignFeedOffsets();
+			long lastOffset = changeRepository.lastFeedOffset();
+			long now = System.nanoTime();
+			for (Waiter waiter : waiters) {
+				if (waiter.result().isDone()) {
+					waiters.remove(waiter);
+				} else if (waiter.afterOffset() < lastOffset) {
+					waiters.remove(waiter);
+					try {
+						waiter.result().complete(readPage(waiter.afterOffset(), waiter.limit()));
+					} catch (RuntimeException e) {
+						waiter.result().completeExceptionally(e);
+					}
+				} else if (now - waiter.deadline() >= 0) {
+					waiters.remove(waiter);
+					waiter.result().complete(new ChangeFeedPage(List.of(), waiter.afterOffset()));
+				}
+			}
+			purgeExpired();
+		} catch (RuntimeException e) {
+			// Waiters stay queued and are retried on the next poll
+			LOGGER.warn("Change feed poll failed: {}", e.getMessage());
+		}
+	}
+
+	private void assignFeedOffsets() {
+		transactionTemplate.executeWithoutResult(status -> changeRepository.assignFeedOffsets(MAX_FEED_SIZE));
+	}
+
+	// At most one reader per interval deletes the changes older than the retention period
+	private void purgeExpired() {
+		long now = System.nanoTime();
+		long scheduled = nextPurge.get();
+		if (now - scheduled >= 0 && nextPurge.compareAndSet(scheduled, now + PURGE_INTERVAL_NANOS)) {
+			transactionTemplate.executeWithoutResult(
+					status -> changeRepository.deleteChangedBefore(Instant.now().minus(retention)));
+		}
+	}
+
+	// Readers still waiting get an empty page rather than an error
+	@Override
+	public void destroy() {
+		poller.shutdownNow();
+		waiters.forEach(waiter -> waiter.result().complete(new ChangeFeedPage(List.of(), waiter.afterOffset())));
+		waiters.clear();
+	}
+
+	private record Waiter(long afterOffset, int limit, long deadline, CompletableFuture<ChangeFeedPage> result) {
+	}
+}
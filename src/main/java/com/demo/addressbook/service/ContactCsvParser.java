@@ -0,0 +1,146 @@
+package com.demo.addressbook.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.dto.ContactImportResult.RowFailure;
+import com.demo.addressbook.exception.InputValidationException;
+
+// Parses contacts from CSV with a header row naming the columns, e.g.
+// firstName,lastName,orgName,email,contactNumber
+// Columns may appear in any order; orgName and email are optional. Fields may be double quoted, and a quoted
+// field may span several lines. Records are numbered by the line they start on, the header being line 1.
+public final class ContactCsvParser {
+
+	private static final String[] COLUMNS = { "firstname", "lastname", "orgname", "email", "contactnumber" };
+	private static final String UNTERMINATED_QUOTE = "Unterminated quoted field";
+
+	private ContactCsvParser() {
+	}
+
+	// Contacts with the line each one starts on, and the records that could not be parsed
+	public record ParsedCsv(List<ContactDto> contacts, List<Integer> lines, List<RowFailure> failures) {
+	}
+
+	public static ParsedCsv parse(String csv) {
+		if (csv == null || csv.isBlank()) {
+			throw new InputValidationException("CSV content is required");
+		}
+		CsvScanner scanner = new CsvScanner(csv);
+		CsvRecord header = scanner.next();
+		if (header.fields() == null) {
+			throw new InputValidationException(UNTERMINATED_QUOTE + " on CSV line " + header.line());
+		}
+		int[] columnIndex = mapHeader(header.fields());
+
+		List<ContactDto> contacts = new ArrayList<>();
+		List<Integer> lines = new ArrayList<>();
+		List<RowFailure> failures = new ArrayList<>();
+		for (CsvRecord record = scanner.next(); record != null; record = scanner.next()) {
+			if (record.fields() == null) {
+				failures.add(new RowFailure(record.line(), UNTERMINATED_QUOTE));
+				continue;
+			}
+			List<String> fields = record.fields();
+			contacts.add(new ContactDto(null, field(fields, columnIndex[0]), field(fields, columnIndex[1]),
+					field(fields, columnIndex[2]), field(fields, columnIndex[3]), field(fields, columnIndex[4])));
+			lines.add(record.line());
+		}
+		return new ParsedCsv(contacts, lines, failures);
+	}
+
+	private static int[] mapHeader(List<String> header) {
+		int[] columnIndex = { -1, -1, -1, -1, -1 };
+		for (int i = 0; i < header.size(); i++) {
+			String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+			for (int c = 0; c < COLUMNS.length; c++) {
+				if (COLUMNS[c].equals(name)) {
+					columnIndex[c] = i;
+				}
+			}
+		}
+		if (columnIndex[0] < 0 || columnIndex[1] < 0 || columnIndex[4] < 0) {
+			throw new InputValidationException("CSV header must contain firstName, lastName and contactNumber columns");
+		}
+		return columnIndex;
+	}
+
+	private static String field(List<String> fields, int index) {
+		if (index < 0 || index >= fields.size()) {
+			return null;
+		}
+		String value = fields.get(index).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	// fields is null for a malformed record
+	private record CsvRecord(int line, List<String> fields) {
+	}
+
+	// Reads one record at a time over the whole input, so that line breaks inside quotes stay in their field.
+	// Blank lines are skipped but still counted.
+	private static final class CsvScanner {
+
+		private final String csv;
+		private int position;
+		private int line = 1;
+
+		CsvScanner(String csv) {
+			this.csv = csv;
+		}
+
+		CsvRecord next() {
+			while (position < csv.length()) {
+				int start = position;
+				int startLine = line;
+				List<String> fields = new ArrayList<>();
+				StringBuilder current = new StringBuilder();
+				boolean quoted = false;
+				boolean blank = true;
+				while (position < csv.length()) {
+					char ch = csv.charAt(position++);
+					if (quoted) {
+						if (ch == '"' && position < csv.length() && csv.charAt(position) == '"') {
+							current.append('"');
+							position++;
+						} else if (ch == '"') {
+							quoted = false;
+						} else {
+							if (ch == '\n') {
+								line++;
+							}
+							current.append(ch);
+						}
+					} else if (ch == '"') {
+						quoted = true;
+						blank = false;
+					} else if (ch == ',') {
+						fields.add(current.toString());
+						current.setLength(0);
+						blank = false;
+					} else if (ch == '\n') {
+						line++;
+						break;
+					} else if (ch != '\r' || position == csv.length() || csv.charAt(position) != '\n') {
+						current.append(ch);
+						blank &= Character.isWhitespace(ch);
+					}
+				}
+				if (quoted) {
+					// The quote was never closed: fail this record alone and resume on the line after its start
+					int lineEnd = csv.indexOf('\n', start);
+					position = lineEnd < 0 ? csv.length() : lineEnd + 1;
+					line = startLine + 1;
+					return new CsvRecord(startLine, null);
+				}
+				if (!blank) {
+					fields.add(current.toString());
+					return new CsvRecord(startLine, fields);
+				}
+			}
+			return null;
+		}
+	}
+}
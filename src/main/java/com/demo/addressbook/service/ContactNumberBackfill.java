@@ -0,0 +1,82 @@
+package com.demo.addressbook.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.addressbook.repository.ContactRepository;
+
+// Fills Contact.normalizedContactNumber for rows written before the column existed. Each batch is a keyset
+// slice in its own short transaction, so only the rows being updated are locked and writers are not blocked.
+// The startup backfill runs on a background thread, so a large legacy table does not delay readiness.
+@Component
+public class ContactNumberBackfill implements DisposableBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ContactNumberBackfill.class);
+
+	ContactRepository contactRepository;
+	TransactionTemplate transactionTemplate;
+	boolean enabled;
+	int batchSize;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(
+			Thread.ofPlatform().name("contact-number-backfill").daemon().factory());
+
+	public ContactNumberBackfill(ContactRepository contactRepository, PlatformTransactionManager transactionManager,
+			@Value("${addressbook.contact-number.backfill.enabled:true}") boolean enabled,
+			@Value("${addressbook.contact-number.backfill.batch-size:1000}") int batchSize) {
+		this.contactRepository = contactRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = enabled;
+		this.batchSize = batchSize;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillOnStartup() {
+		if (enabled) {
+			executor.execute(() -> {
+				try {
+					long batches = backfill();
+					if (batches > 0) {
+						LOGGER.info("Backfilled normalized contact numbers in {} batches", batches);
+					}
+				} catch (RuntimeException e) {
+					// Rows left unnormalized are picked up again on the next start
+					LOGGER.warn("Backfill of normalized contact numbers stopped: {}", e.getMessage());
+				}
+			});
+		}
+	}
+
+	// Interrupts the startup backfill between batches
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	// Returns the number of batches processed
+	public long backfill() {
+		long batches = 0;
+		long afterContactId = 0;
+		while (!Thread.currentThread().isInterrupted()) {
+			long from = afterContactId;
+			Long last = transactionTemplate
+					.execute(status -> contactRepository.backfillNormalizedContactNumbers(from, batchSize));
+			if (last == null || last < 0) {
+				return batches;
+			}
+			batches++;
+			afterContactId = last;
+		}
+		return batches;
+	}
+}
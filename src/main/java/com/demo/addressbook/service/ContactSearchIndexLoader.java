@@ -0,0 +1,28 @@
+package com.demo.addressbook.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+// Loads the search index once every singleton exists, which is before the web server starts and before the
+// application reports itself ready, so no request is served by a partially loaded index. Migrations and
+// import.sql have already run by then, as the EntityManagerFactory is initialized.
+@Component
+public class ContactSearchIndexLoader implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ContactSearchIndexLoader.class);
+
+	ContactService contactService;
+
+	public ContactSearchIndexLoader(ContactService contactService) {
+		this.contactService = contactService;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		long start = System.nanoTime();
+		contactService.rebuildSearchIndex();
+		LOGGER.info("Loaded the contact search index in {} ms", (System.nanoTime() - start) / 1_000_000);
+	}
+}
@@ -1,21 +1,39 @@
 package com.demo.addressbook.service;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.demo.addressbook.dto.ContactDto;
 import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.exception.InputValidationException;
 import com.demo.addressbook.repository.ContactRepository;
+import com.demo.addressbook.search.ContactSearchIndex;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "addressbook.service", description = "Service operations, tagged by class and method")
 public class ContactService {
+
+	public static final int MAX_SEARCH_RESULTS = 100;
+
 	ContactRepository contactRepository;
+	ContactSearchIndex searchIndex;
 	
-	public ContactService(ContactRepository contactRepository) {
+	public ContactService(ContactRepository contactRepository, ContactSearchIndex searchIndex) {
 		this.contactRepository = contactRepository;
+		this.searchIndex = searchIndex;
 	}
 	
 	public Set<Contact> getAllUniqueContacts() {
@@ -25,4 +43,64 @@ public class ContactService {
 	public List<Contact> getAllContacts() {
 		return contactRepository.findAll();
 	}
+
+	// Streams every contact in contactId order without loading the table into memory.
+	// Returns the number of contacts handed to the consumer.
+	@Transactional(readOnly = true)
+	public long exportAllContacts(Consumer<ContactDto> consumer) {
+		long count = 0;
+		try (Stream<ContactDto> contacts = contactRepository.streamAllAsDto()) {
+			Iterator<ContactDto> iterator = contacts.iterator();
+			while (iterator.hasNext()) {
+				consumer.accept(iterator.next());
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// Caller-ID style reverse lookup: a single probe of the normalized contact number index
+	public List<Contact> findContactsByNumber(String contactNumber) {
+		String normalized = Contact.normalizeContactNumber(contactNumber);
+		if (normalized == null) {
+			throw new InputValidationException("Contact Number must contain digits");
+		}
+		return contactRepository.findByNormalizedContactNumberOrderByContactId(normalized);
+	}
+
+	// Matches every query term against names, organisation, email and contact number, by prefix or one edit away
+	public List<Contact> searchContacts(String query, boolean fuzzy, int limit) {
+		if (query == null || query.trim().isEmpty()) {
+			throw new InputValidationException("Search query is required");
+		}
+		if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+			throw new InputValidationException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+		}
+		List<Long> contactIds = searchIndex.search(query, fuzzy, limit);
+		if (contactIds.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, Integer> rank = new HashMap<>();
+		for (int i = 0; i < contactIds.size(); i++) {
+			rank.put(contactIds.get(i), i);
+		}
+		return contactRepository.findAllById(contactIds).stream()
+				.sorted(Comparator.comparing(contact -> rank.get(contact.getContactId()))).toList();
+	}
+
+	// Indexes the contacts already in the database at startup, e.g. in a file-backed H2 database, and reloads
+	// the index when another replica changed too many contacts at once to propagate them one by one.
+	// Searches are answered from the previous index until the new one is complete.
+	@Transactional(readOnly = true)
+	public void rebuildSearchIndex() {
+		searchIndex.rebuild(this::exportAllContacts);
+	}
+
+	// Applies a contact change committed by another replica to the local search index
+	@Transactional(readOnly = true)
+	public void reindexContact(Long contactId) {
+		contactRepository.findById(contactId).ifPresentOrElse(contact -> searchIndex.add(new ContactDto(contact.getContactId(),
+				contact.getFirstName(), contact.getLastName(), contact.getOrgName(), contact.getEmail(), contact.getContactNumber())),
+				() -> searchIndex.remove(contactId));
+	}
 }
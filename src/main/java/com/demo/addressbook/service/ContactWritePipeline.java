@@ -0,0 +1,227 @@
+package com.demo.addressbook.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.dto.WriteRequestStatus;
+import com.demo.addressbook.dto.WriteRequestStatus.State;
+import com.demo.addressbook.exception.InputValidationException;
+import com.demo.addressbook.exception.WriteQueueFullException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Opt-in asynchronous mode for addContact and addExistingContact. Writes are queued in a bounded buffer and a
+// single writer thread commits them in groups of up to batch-size, waiting at most max-linger for a group to
+// fill, so a burst of writes shares one transaction and one commit. When the buffer is full, submit fails fast
+// with WriteQueueFullException instead of blocking the caller.
+@Component
+@ConditionalOnProperty(name = "addressbook.write-pipeline.enabled", havingValue = "true")
+public class ContactWritePipeline implements SmartLifecycle {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ContactWritePipeline.class);
+	private static final long IDLE_POLL_MILLIS = 100;
+
+	AddressBookService addressBookService;
+	TransactionTemplate transactionTemplate;
+	BlockingQueue<QueuedWrite> queue;
+	int batchSize;
+	long maxLingerNanos;
+	Cache<String, WriteRequestStatus> statuses;
+	DistributionSummary groupSizes;
+
+	// Guards the running check and offer in submit against stop, so no write is queued after the writer has left
+	private final Object submitLock = new Object();
+	private volatile boolean running;
+	private Thread writer;
+
+	public ContactWritePipeline(AddressBookService addressBookService, PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${addressbook.write-pipeline.capacity:10000}") int capacity,
+			@Value("${addressbook.write-pipeline.batch-size:200}") int batchSize,
+			@Value("${addressbook.write-pipeline.max-linger:5ms}") Duration maxLinger,
+			@Value("${addressbook.write-pipeline.status-ttl:10m}") Duration statusTtl,
+			@Value("${addressbook.write-pipeline.max-statuses:100000}") long maxStatuses) {
+		this.addressBookService = addressBookService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.maxLingerNanos = maxLinger.toNanos();
+		this.statuses = Caffeine.newBuilder().maximumSize(maxStatuses).expireAfterWrite(statusTtl).build();
+		Gauge.builder("addressbook.write.pipeline.queued", queue, BlockingQueue::size)
+				.description("Writes waiting in the write pipeline").register(meterRegistry);
+		this.groupSizes = DistributionSummary.builder("addressbook.write.pipeline.group.size")
+				.description("Writes committed per transaction by the write pipeline").register(meterRegistry);
+	}
+
+	public Ticket submitAddContact(String addressBookId, ContactDto contact) {
+		return submit(addressBookId, service -> service.addContact(addressBookId, contact));
+	}
+
+	public Ticket submitAddExistingContact(String addressBookId, String contactId) {
+		return submit(addressBookId, service -> service.addExistingContact(addressBookId, contactId));
+	}
+
+	public WriteRequestStatus getStatus(String requestId) {
+		WriteRequestStatus status = statuses.getIfPresent(requestId);
+		if (status == null) {
+			throw InputValidationException.WRITE_REQUEST_NOT_FOUND;
+		}
+		return status;
+	}
+
+	private Ticket submit(String addressBookId, Function<AddressBookService, String> write) {
+		QueuedWrite queued = new QueuedWrite(UUID.randomUUID().toString(), addressBookId, write, new CompletableFuture<>());
+		synchronized (submitLock) {
+			if (!running) {
+				throw WriteQueueFullException.INSTANCE;
+			}
+			statuses.put(queued.requestId(), new WriteRequestStatus(queued.requestId(), State.PENDING, null));
+			if (!queue.offer(queued)) {
+				statuses.invalidate(queued.requestId());
+				throw WriteQueueFullException.INSTANCE;
+			}
+		}
+		return new Ticket(queued.requestId(), queued.result());
+	}
+
+	private void drain() {
+		List<QueuedWrite> group = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				QueuedWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				group.add(first);
+				long deadline = System.nanoTime() + maxLingerNanos;
+				while (group.size() < batchSize) {
+					queue.drainTo(group, batchSize - group.size());
+					long remaining = deadline - System.nanoTime();
+					if (group.size() == batchSize || remaining <= 0) {
+						break;
+					}
+					QueuedWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					group.add(next);
+				}
+				commit(group);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				LOGGER.error("Write pipeline group failed", e);
+			} finally {
+				group.clear();
+			}
+		}
+	}
+
+	// The group is written in one transaction. If any write fails the whole group rolls back and each write is
+	// replayed in its own transaction, so only the failing ones fail. Conflicts are not retried inside the group,
+	// see RetryOnConflict.NoOuterTransaction; the replay retries them.
+	void commit(List<QueuedWrite> group) {
+		groupSizes.record(group.size());
+		List<String> responses;
+		try {
+			responses = transactionTemplate.execute(status -> {
+				List<String> results = new ArrayList<>(group.size());
+				for (QueuedWrite queued : group) {
+					results.add(queued.write().apply(addressBookService));
+				}
+				return results;
+			});
+		} catch (RuntimeException e) {
+			group.forEach(this::commitAlone);
+			return;
+		}
+		// Evictions made inside the group ran before the commit, so evict again now that it is visible
+		Set<String> addressBookIds = new LinkedHashSet<>();
+		group.forEach(queued -> addressBookIds.add(queued.addressBookId()));
+		addressBookIds.forEach(addressBookService::evictContacts);
+		for (int i = 0; i < group.size(); i++) {
+			complete(group.get(i), responses.get(i));
+		}
+	}
+
+	private void commitAlone(QueuedWrite queued) {
+		try {
+			complete(queued, queued.write().apply(addressBookService));
+		} catch (RuntimeException e) {
+			statuses.put(queued.requestId(), new WriteRequestStatus(queued.requestId(), State.FAILED, e.getMessage()));
+			queued.result().completeExceptionally(e);
+		}
+	}
+
+	private void complete(QueuedWrite queued, String response) {
+		statuses.put(queued.requestId(), new WriteRequestStatus(queued.requestId(), State.COMPLETED, response));
+		queued.result().complete(response);
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		writer = Thread.ofPlatform().name("contact-write-pipeline").start(this::drain);
+	}
+
+	// New writes are refused and the writes already queued are committed before the context closes
+	@Override
+	public void stop() {
+		synchronized (submitLock) {
+			running = false;
+		}
+		if (writer == null) {
+			return;
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// Only left behind if the writer was interrupted; fail them rather than leave their tickets pending
+		List<QueuedWrite> abandoned = new ArrayList<>();
+		queue.drainTo(abandoned);
+		abandoned.forEach(queued -> {
+			statuses.put(queued.requestId(),
+					new WriteRequestStatus(queued.requestId(), State.FAILED, "Write pipeline stopped"));
+			queued.result().completeExceptionally(new IllegalStateException("Write pipeline stopped"));
+		});
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	// Handle of an accepted write: poll getStatus(requestId) or wait on result
+	public record Ticket(String requestId, CompletableFuture<String> result) {
+	}
+
+	record QueuedWrite(String requestId, String addressBookId, Function<AddressBookService, String> write,
+			CompletableFuture<String> result) {
+	}
+}
@@ -0,0 +1,45 @@
+package com.demo.addressbook.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.demo.addressbook.dto.DataGenerationResult;
+
+// Generates a synthetic data set at startup, e.g.
+// java -jar address-book.jar --addressbook.generate.contacts=1000000 --addressbook.generate.address-books=100
+@Component
+@ConditionalOnProperty("addressbook.generate.contacts")
+public class DataGenerationRunner implements ApplicationRunner {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataGenerationRunner.class);
+
+	InitialSetupService initialSetupService;
+	int addressBooks;
+	int contacts;
+	double overlap;
+	long seed;
+
+	public DataGenerationRunner(InitialSetupService initialSetupService,
+			@Value("${addressbook.generate.address-books:10}") int addressBooks,
+			@Value("${addressbook.generate.contacts}") int contacts,
+			@Value("${addressbook.generate.overlap:0.2}") double overlap,
+			@Value("${addressbook.generate.seed:0}") long seed) {
+		this.initialSetupService = initialSetupService;
+		this.addressBooks = addressBooks;
+		this.contacts = contacts;
+		this.overlap = overlap;
+		this.seed = seed;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		DataGenerationResult result = initialSetupService.generateAddressBookData(addressBooks, contacts, overlap, seed);
+		LOGGER.info("Generated {} address books, {} contacts and {} links in {} ms ({} rows/sec)", result.addressBooks(),
+				result.contacts(), result.links(), result.elapsedMillis(), result.rowsPerSecond());
+	}
+}
@@ -1,24 +1,44 @@
 package com.demo.addressbook.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.demo.addressbook.dto.DataGenerationResult;
 import com.demo.addressbook.entity.AddressBook;
 import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.entity.ContactChange;
+import com.demo.addressbook.exception.InputValidationException;
 import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactChangeRepository;
 import com.demo.addressbook.repository.ContactRepository;
 
 @Service
 public class InitialSetupService {
+
+	public static final int MAX_GENERATED_ADDRESS_BOOKS = 10_000;
+	public static final int MAX_GENERATED_CONTACTS = 10_000_000;
+	static final int GENERATION_CHUNK_SIZE = 10_000;
+
 	AddressBookRepository addressBookRepository;
 	ContactRepository contactRepository;
+	ContactChangeRepository changeRepository;
+	TransactionTemplate transactionTemplate;
 
-	public InitialSetupService(AddressBookRepository addressBookRepository, ContactRepository contactRepository) {
+	public InitialSetupService(AddressBookRepository addressBookRepository, ContactRepository contactRepository,
+			ContactChangeRepository changeRepository, PlatformTransactionManager transactionManager) {
 		this.addressBookRepository = addressBookRepository;
 		this.contactRepository = contactRepository;
+		this.changeRepository = changeRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
 	}
 
 	@Transactional
@@ -48,10 +68,82 @@ public class InitialSetupService {
 		addressBookRepository
 				.saveAll(Stream.of(addressBook1, addressBook2, addressBook3, addressBook4, addressBook5).toList());
 
-		Contact c = contactRepository.findById(5L).get();
-		addressBook1.getContacts().add(c);
+		addressBook1.getContacts().add(contact5);
 		addressBookRepository.save(addressBook1);
 
-		return addressBookRepository.findAll();
+		// Seeded contacts reach the change feed like any other, so a consumer starting at offset 0 sees them
+		changeRepository.record(ContactChange.Type.CREATED, null, Stream.of(contact1, contact2, contact3, contact4, contact5)
+				.map(Contact::getContactId).toList());
+		Stream.of(addressBook1, addressBook2, addressBook3, addressBook4, addressBook5)
+				.forEach(addressBook -> changeRepository.record(ContactChange.Type.LINKED, addressBook.getAddressBookId(),
+						addressBook.getContacts().stream().map(Contact::getContactId).toList()));
+
+		return addressBookRepository.findAllWithContacts();
+	}
+
+	// Generates a synthetic data set for load testing. Every contact belongs to one random address book and
+	// joins each further book with probability overlap, so the number of extra books is geometric.
+	// Names carry a per-run suffix so that repeated runs do not collide on the unique name indexes.
+	// The address books and then each chunk of contacts commit in their own transaction, so undo log and
+	// locks stay bounded by the chunk size; a failure keeps the chunks already committed.
+	public DataGenerationResult generateAddressBookData(int addressBookCount, int contactCount, double overlap, long seed) {
+		if (addressBookCount < 1 || addressBookCount > MAX_GENERATED_ADDRESS_BOOKS) {
+			throw new InputValidationException("Address Book count must be between 1 and " + MAX_GENERATED_ADDRESS_BOOKS);
+		}
+		if (contactCount < 0 || contactCount > MAX_GENERATED_CONTACTS) {
+			throw new InputValidationException("Contact count must be between 0 and " + MAX_GENERATED_CONTACTS);
+		}
+		if (overlap < 0 || overlap >= 1) {
+			throw new InputValidationException("Overlap must be at least 0 and less than 1");
+		}
+		long start = System.nanoTime();
+		String runId = Long.toString(System.currentTimeMillis(), 36);
+		Random random = new Random(seed);
+
+		List<AddressBook> addressBooks = new ArrayList<>(addressBookCount);
+		for (int b = 0; b < addressBookCount; b++) {
+			addressBooks.add(new AddressBook("Gen" + runId + b));
+		}
+		long[] addressBookIds = transactionTemplate.execute(status -> addressBookRepository.saveAll(addressBooks).stream()
+				.mapToLong(AddressBook::getAddressBookId).toArray());
+
+		long links = 0;
+		List<Contact> contacts = new ArrayList<>(GENERATION_CHUNK_SIZE);
+		for (int from = 0; from < contactCount; from += GENERATION_CHUNK_SIZE) {
+			int to = Math.min(from + GENERATION_CHUNK_SIZE, contactCount);
+			contacts.clear();
+			for (int i = from; i < to; i++) {
+				contacts.add(new Contact("Gen" + i, "Run" + runId, String.format("+61 %09d", i)));
+			}
+			links += transactionTemplate.execute(status -> saveAndLinkChunk(contacts, addressBookIds, overlap, random));
+		}
+		return new DataGenerationResult(addressBookCount, contactCount, links, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	// Inserts one chunk of contacts and their memberships along with their change feed rows, returning the
+	// number of links written
+	private long saveAndLinkChunk(List<Contact> contacts, long[] addressBookIds, double overlap, Random random) {
+		List<Long> contactIds = contactRepository.saveAllInBatches(contacts);
+		changeRepository.record(ContactChange.Type.CREATED, null, contactIds);
+
+		long links = 0;
+		Map<Integer, List<Long>> contactIdsByBook = new HashMap<>();
+		for (Long contactId : contactIds) {
+			int book = random.nextInt(addressBookIds.length);
+			int memberships = 1;
+			contactIdsByBook.computeIfAbsent(book, k -> new ArrayList<>()).add(contactId);
+			while (memberships < addressBookIds.length && random.nextDouble() < overlap) {
+				// Walk forward from the primary book so that each membership is a distinct book
+				contactIdsByBook.computeIfAbsent((book + memberships) % addressBookIds.length, k -> new ArrayList<>())
+						.add(contactId);
+				memberships++;
+			}
+			links += memberships;
+		}
+		contactIdsByBook.forEach((book, ids) -> {
+			contactRepository.linkToAddressBook(addressBookIds[book], ids);
+			changeRepository.record(ContactChange.Type.LINKED, addressBookIds[book], ids);
+		});
+		return links;
 	}
 }
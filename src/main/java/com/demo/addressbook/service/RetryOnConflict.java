@@ -0,0 +1,43 @@
+package com.demo.addressbook.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.resilience.annotation.Retryable;
+import org.springframework.resilience.retry.MethodRetryPredicate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Writes that lose a lock or an optimistic version check to a concurrent writer are retried a bounded number
+// of times, each in a new transaction, with a short randomized back-off. A write that joined a caller's
+// transaction is not retried: the conflict has marked that transaction rollback-only, so only the caller can retry.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(includes = ConcurrencyFailureException.class, maxRetries = RetryOnConflict.MAX_RETRIES,
+		delay = RetryOnConflict.DELAY_MILLIS, jitter = RetryOnConflict.JITTER_MILLIS, multiplier = 2,
+		predicate = RetryOnConflict.NoOuterTransaction.class)
+public @interface RetryOnConflict {
+
+	long MAX_RETRIES = 5;
+	long DELAY_MILLIS = 10;
+	long JITTER_MILLIS = 5;
+
+	// The exceptions that mean a concurrent writer won, e.g. also DuplicateKeyException for a racing insert
+	@AliasFor(annotation = Retryable.class, attribute = "includes")
+	Class<? extends Throwable>[] value() default ConcurrencyFailureException.class;
+
+	// Retry advice runs outside the method's own transaction, so a transaction still active here is the caller's
+	class NoOuterTransaction implements MethodRetryPredicate {
+
+		@Override
+		public boolean shouldRetry(Method method, Throwable throwable) {
+			return !TransactionSynchronizationManager.isActualTransactionActive();
+		}
+	}
+}
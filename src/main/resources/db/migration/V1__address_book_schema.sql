@@ -0,0 +1,34 @@
+-- Address books, contacts and their memberships as mapped by the AddressBook and Contact entities
+create sequence address_book_seq start with 1 increment by 50;
+create sequence contact_seq start with 1 increment by 50;
+
+create table address_book (
+	address_book_id bigint not null,
+	name varchar(255),
+	normalized_name varchar(255) not null,
+	primary key (address_book_id),
+	constraint UC_ADDRESS_BOOK_NAME unique (normalized_name)
+);
+
+create table contact (
+	contact_id bigint not null,
+	first_name varchar(255) not null,
+	last_name varchar(255) not null,
+	org_name varchar(255),
+	email varchar(255),
+	contact_number varchar(255) not null,
+	normalized_contact_number varchar(255),
+	primary key (contact_id),
+	constraint UC_NAME unique (first_name, last_name)
+);
+
+create index IDX_CONTACT_NUMBER on contact (normalized_contact_number);
+
+-- contact_id leads the foreign key index used by orphan checks and contact to address book joins
+create table address_book_contact (
+	address_book_id bigint not null,
+	contact_id bigint not null,
+	primary key (address_book_id, contact_id),
+	constraint FK_ADDRESS_BOOK_CONTACT_ADDRESS_BOOK foreign key (address_book_id) references address_book (address_book_id),
+	constraint FK_ADDRESS_BOOK_CONTACT_CONTACT foreign key (contact_id) references contact (contact_id)
+);
@@ -0,0 +1,11 @@
+-- Change notifications between replicas sharing this database, see ClusterChangeLog
+create table cluster_change (
+	id bigint generated by default as identity,
+	channel varchar(64) not null,
+	entity_key varchar(255),
+	origin varchar(36) not null,
+	created_at timestamp with time zone default current_timestamp not null,
+	primary key (id)
+);
+
+create index IDX_CLUSTER_CHANGE_CREATED on cluster_change (created_at);
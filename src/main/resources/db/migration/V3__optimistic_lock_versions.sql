@@ -0,0 +1,3 @@
+-- Optimistic lock versions of address books and contacts; existing rows start at 0
+alter table address_book add column version bigint default 0 not null;
+alter table contact add column version bigint default 0 not null;
@@ -0,0 +1,14 @@
+-- Responses recorded per Idempotency-Key, see JdbcIdempotencyStore; status is null while the request is in progress
+create table idempotency_key (
+	idempotency_key varchar(255) not null,
+	fingerprint varchar(128) not null,
+	status integer,
+	content_type varchar(255),
+	-- Replayed response headers, one "Name: value" line per header
+	headers varchar(4096),
+	body blob,
+	created_at timestamp with time zone default current_timestamp not null,
+	primary key (idempotency_key)
+);
+
+create index IDX_IDEMPOTENCY_KEY_CREATED on idempotency_key (created_at);
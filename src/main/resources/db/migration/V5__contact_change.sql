@@ -0,0 +1,21 @@
+-- Change-data feed of contact mutations, see ContactChange; feed_offset is assigned in commit order after insert
+create table contact_change (
+	id bigint generated by default as identity,
+	change_type varchar(16) not null,
+	contact_id bigint not null,
+	address_book_id bigint,
+	changed_at timestamp(6) with time zone not null,
+	feed_offset bigint,
+	primary key (id)
+);
+
+create unique index IDX_CONTACT_CHANGE_OFFSET on contact_change (feed_offset);
+create index IDX_CONTACT_CHANGE_CHANGED on contact_change (changed_at);
+
+create table contact_change_offset (
+	id integer not null,
+	last_offset bigint not null,
+	primary key (id)
+);
+
+insert into contact_change_offset (id, last_offset) values (1, 0);
@@ -0,0 +1,2 @@
+-- Run by Hibernate after it created the schema (ddl-auto create/create-drop); Flyway profiles get this row from V5
+insert into contact_change_offset (id, last_offset) values (1, 0);
@@ -0,0 +1,67 @@
+package com.demo.addressbook.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import com.demo.addressbook.dto.ContactDto;
+
+class GlobalExceptionHandlerTest {
+
+	@Test
+	void inputValidation_isNotFoundProblemWithoutTrace() {
+		ResponseEntity<ProblemDetail> response = new GlobalExceptionHandler(false)
+				.handleException(InputValidationException.ADDRESS_BOOK_NOT_FOUND);
+
+		assertEquals(404, response.getStatusCode().value());
+		assertEquals("Address Book not found", response.getBody().getDetail());
+		assertNull(response.getBody().getProperties());
+	}
+
+	@Test
+	void debugProfile_rendersTraceProperty() {
+		ResponseEntity<ProblemDetail> response = new GlobalExceptionHandler(true)
+				.handleGenericException(new DataIntegrityViolationException("duplicate"));
+
+		assertEquals(409, response.getStatusCode().value());
+		assertTrue(response.getBody().getProperties().get("trace").toString().contains("DataIntegrityViolationException: duplicate"));
+	}
+
+	@Test
+	void methodArgumentNotValid_detailListsOnlyConstraintMessages() throws NoSuchMethodException {
+		BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(
+				new ContactDto(null, "St", "Waugh", null, null, "+61 123"), "contactDto");
+		bindingResult.addError(new FieldError("contactDto", "firstName", "St", false, new String[] { "Size" }, null,
+				"First Name must be between 3 and 20 characters"));
+		MethodParameter parameter = new MethodParameter(
+				GlobalExceptionHandlerTest.class.getDeclaredMethod("addContact", ContactDto.class), 0);
+
+		ResponseEntity<ProblemDetail> response = new GlobalExceptionHandler(false)
+				.handleGenericException(new MethodArgumentNotValidException(parameter, bindingResult));
+
+		assertEquals(400, response.getStatusCode().value());
+		assertEquals("First Name must be between 3 and 20 characters", response.getBody().getDetail());
+		assertFalse(response.getBody().getDetail().contains("addContact"));
+	}
+
+	@Test
+	void inputValidationException_isStackless() {
+		assertEquals(0, new InputValidationException("Bad input").getStackTrace().length);
+		assertEquals(0, InputValidationException.CONTACT_NOT_FOUND.getStackTrace().length);
+		InputValidationException.CONTACT_NOT_FOUND.addSuppressed(new IllegalStateException());
+		assertEquals(0, InputValidationException.CONTACT_NOT_FOUND.getSuppressed().length);
+	}
+
+	void addContact(ContactDto contact) {
+	}
+}
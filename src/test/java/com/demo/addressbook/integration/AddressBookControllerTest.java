@@ -1,38 +1,79 @@
 package com.demo.addressbook.integration;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import com.demo.addressbook.controller.AddressBookController;
+import com.demo.addressbook.dto.ChangeFeedPage;
+import com.demo.addressbook.dto.ContactChangeDto;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.dto.ContactImportResult;
+import com.demo.addressbook.dto.ContactImportResult.RowFailure;
+import com.demo.addressbook.dto.DataGenerationResult;
+import com.demo.addressbook.dto.WriteRequestStatus;
+import com.demo.addressbook.dto.WriteRequestStatus.State;
 import com.demo.addressbook.entity.AddressBook;
 import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.entity.ContactChange;
+import com.demo.addressbook.exception.ChangeFeedGapException;
+import com.demo.addressbook.exception.InputValidationException;
+import com.demo.addressbook.exception.WriteQueueFullException;
+import com.demo.addressbook.idempotency.IdempotencyConfig;
+import com.demo.addressbook.idempotency.IdempotencyFilter;
+import com.demo.addressbook.idempotency.InMemoryIdempotencyStore;
 import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ChangeFeedService;
 import com.demo.addressbook.service.ContactService;
+import com.demo.addressbook.service.ContactWritePipeline;
 import com.demo.addressbook.service.InitialSetupService;
 
 import tools.jackson.databind.ObjectMapper;
 
+// The Idempotency-Key replay tests below run the requests through the filter
+@Import({ IdempotencyConfig.class, InMemoryIdempotencyStore.class })
 @WebMvcTest(AddressBookController.class)
 class AddressBookControllerTest {
 
@@ -51,6 +92,12 @@ class AddressBookControllerTest {
 	@MockitoBean
 	private InitialSetupService initialSetupService;
 
+	@MockitoBean
+	private ContactWritePipeline writePipeline;
+
+	@MockitoBean
+	private ChangeFeedService changeFeedService;
+
 	@Test
 	@DisplayName("When no contacts exist for an address book, a specific message is returned")
 	void getContacts_noContacts_returnsNoContactsMessage() throws Exception {
@@ -73,6 +120,39 @@ class AddressBookControllerTest {
 				.andExpect(content().string(Matchers.containsString("lastName=Doe")));
 	}
 
+	@Test
+	@DisplayName("When page parameters are given, a single page of contacts is returned")
+	void getContacts_withPageParams_returnsPage() throws Exception {
+		Contact c = new Contact("John", "Doe", "Org", "john@example.com", "123456789");
+		when(addressBookService.findContactsByAddressBookId("1", 2, 10))
+				.thenReturn(new PageImpl<>(List.of(c), PageRequest.of(2, 10), 21));
+
+		mockMvc.perform(get("/v1/address-book/contacts/1").param("page", "2").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(Matchers.containsString("firstName=John")))
+				.andExpect(content().string(Matchers.containsString("page=2, totalPages=3, totalContacts=21")));
+		verify(addressBookService, never()).findAllContactsByAddressBookId(any());
+	}
+
+	@Test
+	@DisplayName("When a keyset cursor is given, contacts after it are returned with the next cursor")
+	void getContacts_withAfterContactId_returnsNextCursor() throws Exception {
+		Contact c = mock(Contact.class);
+		when(c.getContactId()).thenReturn(42L);
+		when(addressBookService.findContactsByAddressBookIdAfter("1", 10L, 100)).thenReturn(List.of(c));
+
+		mockMvc.perform(get("/v1/address-book/contacts/1").param("afterContactId", "10"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(Matchers.containsString("nextAfterContactId=42")));
+	}
+
+	@Test
+	@DisplayName("Getting contacts with an out of range page size returns Bad Request")
+	void getContacts_invalidPageSize_returnsBadRequest() throws Exception {
+		mockMvc.perform(get("/v1/address-book/contacts/1").param("size", "0")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/v1/address-book/contacts/1").param("size", "1001")).andExpect(status().isBadRequest());
+	}
+
 	@Test
 	@DisplayName("Adding a new contact returns the service response")
 	void addContact_returnsServiceResponse() throws Exception {
@@ -104,6 +184,29 @@ class AddressBookControllerTest {
 				.andExpect(status().isBadRequest());
 	}
 
+	@Test
+	@DisplayName("Importing a JSON array of contacts reports imported count and failed rows")
+	void importContacts_json_returnsSummary() throws Exception {
+		when(addressBookService.importContacts(eq("1"), any()))
+				.thenReturn(new ContactImportResult(1, List.of(new RowFailure(2, "First Name is required"))));
+
+		mockMvc.perform(put("/v1/address-book/contact/import/1").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"firstName\":\"Jane\",\"lastName\":\"Smith\",\"contactNumber\":\"987654321\"},{}]"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(Matchers.containsString("Imported 1 contacts into Address Book")))
+				.andExpect(content().string(Matchers.containsString("row=2, reason=First Name is required")));
+	}
+
+	@Test
+	@DisplayName("Importing contacts as CSV hands the raw CSV to the service")
+	void importContacts_csv_returnsSummary() throws Exception {
+		String csv = "firstName,lastName,contactNumber\nJane,Smith,987654321\n";
+		when(addressBookService.importContactsFromCsv("1", csv)).thenReturn(new ContactImportResult(1, List.of()));
+
+		mockMvc.perform(put("/v1/address-book/contact/import/1").contentType("text/csv").content(csv))
+				.andExpect(status().isOk()).andExpect(content().string("Imported 1 contacts into Address Book"));
+	}
+
 	@Test
 	@DisplayName("Adding an existing contact returns a service response")
 	void addExistingContact_returnsServiceResponse() throws Exception {
@@ -113,6 +216,16 @@ class AddressBookControllerTest {
 				.andExpect(content().string("Contact added to Address Book"));
 	}
 
+	@Test
+	@DisplayName("Adding several existing contacts reports how many were added")
+	void addExistingContacts_returnsAddedCount() throws Exception {
+		when(addressBookService.addExistingContacts("1", List.of(2L, 3L))).thenReturn(1);
+
+		mockMvc.perform(put("/v1/address-book/contact/addexisting/1/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content("[2,3]")).andExpect(status().isOk())
+				.andExpect(content().string("Added 1 of 2 contacts to Address Book"));
+	}
+
 	@Test
 	@DisplayName("Adding an existing contact with invalid input returns Bad Request")
 	void addExistingContact_invalidContactId_returnsBadRequest() throws Exception {
@@ -130,6 +243,43 @@ class AddressBookControllerTest {
 				.andExpect(status().isBadRequest());
 	}
 
+	@Test
+	@DisplayName("Searching contacts returns the matching contacts")
+	void searchContacts_returnsMatches() throws Exception {
+		Contact c = new Contact("Matthew", "Hayden", "+61 123 456 789");
+		when(contactService.searchContacts("hay", true, 5)).thenReturn(List.of(c));
+
+		mockMvc.perform(get("/v1/address-book/contacts/search").param("q", "hay").param("fuzzy", "true").param("limit", "5"))
+				.andExpect(status().isOk()).andExpect(content().string("Matching Contacts: " + List.of(c)));
+	}
+
+	@Test
+	@DisplayName("Searching contacts with a blank query returns Bad Request")
+	void searchContacts_blankQuery_returnsBadRequest() throws Exception {
+		mockMvc.perform(get("/v1/address-book/contacts/search").param("q", " ")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/v1/address-book/contacts/search").param("q", "hay").param("limit", "101"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("Looking up contacts by number returns the contacts with that number")
+	void lookupContacts_returnsMatches() throws Exception {
+		Contact c = new Contact("Matthew", "Hayden", "+61 123 456 789");
+		when(contactService.findContactsByNumber("+61 123 456 789")).thenReturn(List.of(c));
+
+		mockMvc.perform(get("/v1/address-book/contacts/lookup").param("number", "+61 123 456 789"))
+				.andExpect(status().isOk()).andExpect(content().string("Contacts with Contact Number: " + List.of(c)));
+	}
+
+	@Test
+	@DisplayName("Looking up an unknown number returns a specific message")
+	void lookupContacts_noMatch_returnsNoContactsMessage() throws Exception {
+		when(contactService.findContactsByNumber("999")).thenReturn(List.of());
+
+		mockMvc.perform(get("/v1/address-book/contacts/lookup").param("number", "999")).andExpect(status().isOk())
+				.andExpect(content().string("No contacts found with the Contact Number."));
+	}
+
 	@Test
 	@DisplayName("When contacts exist, return them across all address books")
 	void getAllContacts_returnsContacts() throws Exception {
@@ -154,6 +304,28 @@ class AddressBookControllerTest {
 				.andExpect(content().string("No contacts found in address books."));
 	}
 
+	@Test
+	@DisplayName("Exporting all contacts as NDJSON streams one JSON document per line")
+	void exportAllContacts_ndjson_streamsOneContactPerLine() throws Exception {
+		doAnswer(invocation -> {
+			Consumer<ContactDto> consumer = invocation.getArgument(0);
+			consumer.accept(new ContactDto(1L, "Matthew", "Hayden", null, null, "+61 123 456 789"));
+			consumer.accept(new ContactDto(2L, "Andrew", "Symonds", null, null, "+61 234 567 890"));
+			return 2L;
+		}).when(contactService).exportAllContacts(any());
+
+		MvcResult result = mockMvc.perform(get("/v1/address-book/allcontacts").param("format", "ndjson"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson")).andReturn().getResponse()
+				.getContentAsString();
+		String[] lines = body.split("\n");
+		assertEquals(2, lines.length);
+		assertEquals("Matthew", objectMapper.readTree(lines[0]).get("firstName").asString());
+		assertEquals(2L, objectMapper.readTree(lines[1]).get("contactId").asLong());
+	}
+
 	@Test
 	@DisplayName("Convenience method to set up initial address book data returns created address books")
 	void setup_returnsAddressBooks() throws Exception {
@@ -167,6 +339,56 @@ class AddressBookControllerTest {
 				.andExpect(content().string(Matchers.containsString("name=MyBook")));
 	}
 
+	@Test
+	@DisplayName("Generating synthetic data reports the rows written and the insert rate")
+	void generate_returnsSummary() throws Exception {
+		when(initialSetupService.generateAddressBookData(10, 1000, 0.5, 7L))
+				.thenReturn(new DataGenerationResult(10, 1000, 1990, 1000));
+
+		mockMvc.perform(put("/v1/address-book/setup/generate").param("addressBooks", "10").param("contacts", "1000")
+				.param("overlap", "0.5").param("seed", "7")).andExpect(status().isOk())
+				.andExpect(content().string("Generated 10 address books, 1000 contacts and 1990 links in 1000 ms (3000 rows/sec)"));
+	}
+
+	@Test
+	@DisplayName("Generating synthetic data with an out of range overlap returns Bad Request")
+	void generate_invalidOverlap_returnsBadRequest() throws Exception {
+		mockMvc.perform(put("/v1/address-book/setup/generate").param("overlap", "1")).andExpect(status().isBadRequest());
+		verify(initialSetupService, never()).generateAddressBookData(anyInt(), anyInt(), anyDouble(), anyLong());
+	}
+
+	@Test
+	@DisplayName("When no database connection is available, Service Unavailable is returned")
+	void getContacts_connectionPoolExhausted_returnsServiceUnavailable() throws Exception {
+		when(addressBookService.findAllContactsByAddressBookId("1"))
+				.thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out"));
+
+		mockMvc.perform(get("/v1/address-book/contacts/1")).andExpect(status().isServiceUnavailable())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+				.andExpect(jsonPath("$.title").value(Matchers.startsWith("Service is busy")))
+				.andExpect(jsonPath("$.status").value(503));
+	}
+
+	@Test
+	@DisplayName("Errors are problem details without a stack trace outside the debug profile")
+	void getContacts_missingAddressBook_returnsProblemDetailWithoutTrace() throws Exception {
+		when(addressBookService.findAllContactsByAddressBookId("1")).thenThrow(InputValidationException.ADDRESS_BOOK_NOT_FOUND);
+
+		mockMvc.perform(get("/v1/address-book/contacts/1")).andExpect(status().isNotFound())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+				.andExpect(jsonPath("$.detail").value("Address Book not found"))
+				.andExpect(jsonPath("$.instance").value("/v1/address-book/contacts/1"))
+				.andExpect(jsonPath("$.trace").doesNotExist());
+	}
+
+	@Test
+	@DisplayName("Validation failures on path variables are problem details")
+	void getContacts_invalidId_returnsValidationProblemDetail() throws Exception {
+		mockMvc.perform(get("/v1/address-book/contacts/abc")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.title").value(Matchers.startsWith("Validation failed")))
+				.andExpect(jsonPath("$.trace").doesNotExist());
+	}
+
 	@Test
 	@DisplayName("Getting contacts with invalid address book ID returns Bad Request")
 	void getContacts_invalidId_returnsBadRequest() throws Exception {
@@ -192,6 +414,16 @@ class AddressBookControllerTest {
 				.andExpect(status().isOk()).andExpect(content().string("Contact removed"));
 	}
 
+	@Test
+	@DisplayName("Removing several contacts reports how many were removed")
+	void removeContactsFromAddressBook_returnsRemovedCount() throws Exception {
+		when(addressBookService.removeContactsByAddressBookId("1", List.of(7L, 8L, 9L))).thenReturn(2);
+
+		mockMvc.perform(delete("/v1/address-book/contact/remove/1/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content("[7,8,9]")).andExpect(status().isOk())
+				.andExpect(content().string("Removed 2 of 3 contacts from Address Book"));
+	}
+
 	@Test
 	@DisplayName("Removing a contact with invalid input returns Bad Request")
 	void removeContactFromAddressBook_invalidId_returnsBadRequest() throws Exception {
@@ -203,4 +435,146 @@ class AddressBookControllerTest {
 				delete("/v1/address-book/contact/remove/abc").contentType(MediaType.APPLICATION_JSON).content(json))
 				.andExpect(status().isBadRequest());
 	}
-}
\ No newline at end of file
+
+	@Test
+	@DisplayName("A retried PUT with the same Idempotency-Key is answered from the store without calling the service")
+	void addContact_retriedWithIdempotencyKey_replaysResponse() throws Exception {
+		when(addressBookService.addContact(eq("1"), any())).thenReturn("Contact added");
+		String json = "{\"firstName\":\"Jane\",\"lastName\":\"Smith\",\"contactNumber\":\"987654321\"}";
+
+		mockMvc.perform(put("/v1/address-book/contact/add/1").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "add-jane")
+				.contentType(MediaType.APPLICATION_JSON).content(json))
+				.andExpect(status().isOk()).andExpect(content().string("Contact added"))
+				.andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+		mockMvc.perform(put("/v1/address-book/contact/add/1").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "add-jane")
+				.contentType(MediaType.APPLICATION_JSON).content(json))
+				.andExpect(status().isOk()).andExpect(content().string("Contact added"))
+				.andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+		verify(addressBookService, times(1)).addContact(eq("1"), any());
+	}
+
+	@Test
+	@DisplayName("Reusing an Idempotency-Key for a different request returns Unprocessable Content")
+	void removeContacts_idempotencyKeyReusedForOtherBody_returnsUnprocessableContent() throws Exception {
+		when(addressBookService.removeContactsByAddressBookId("1", List.of(7L))).thenReturn(1);
+
+		mockMvc.perform(delete("/v1/address-book/contact/remove/1/bulk").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "remove-7")
+				.contentType(MediaType.APPLICATION_JSON).content("[7]")).andExpect(status().isOk());
+		mockMvc.perform(delete("/v1/address-book/contact/remove/1/bulk").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "remove-7")
+				.contentType(MediaType.APPLICATION_JSON).content("[8]"))
+				.andExpect(status().is(422)).andExpect(jsonPath("$.status").value(422));
+
+		verify(addressBookService, never()).removeContactsByAddressBookId("1", List.of(8L));
+	}
+
+	@Test
+	@DisplayName("Server errors are not recorded, so a retry with the same Idempotency-Key executes again")
+	void addAddressBook_serverErrorWithIdempotencyKey_isRetried() throws Exception {
+		when(addressBookService.addAddressBook("Flaky")).thenThrow(new CannotCreateTransactionException("busy"))
+				.thenReturn(new AddressBook("Flaky"));
+
+		mockMvc.perform(put("/v1/address-book/add/Flaky").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "flaky"))
+				.andExpect(status().isServiceUnavailable());
+		mockMvc.perform(put("/v1/address-book/add/Flaky").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "flaky"))
+				.andExpect(status().isOk());
+
+		verify(addressBookService, times(2)).addAddressBook("Flaky");
+	}
+
+	@Test
+	@DisplayName("Add contact with Prefer: respond-async is queued and answered with Accepted")
+	void addContact_preferRespondAsync_returnsAccepted() throws Exception {
+		when(writePipeline.submitAddContact(eq("1"), any()))
+				.thenReturn(new ContactWritePipeline.Ticket("req-1", new CompletableFuture<>()));
+		String json = "{\"firstName\":\"Jane\",\"lastName\":\"Smith\",\"contactNumber\":\"987654321\"}";
+
+		mockMvc.perform(put("/v1/address-book/contact/add/1").header("Prefer", "respond-async")
+				.contentType(MediaType.APPLICATION_JSON).content(json))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/v1/address-book/requests/req-1"))
+				.andExpect(content().string("Request accepted:req-1"));
+
+		verify(addressBookService, never()).addContact(any(), any());
+	}
+
+	@Test
+	@DisplayName("Add existing contact is rejected with Too Many Requests when the write queue is full")
+	void addExistingContact_writeQueueFull_returnsTooManyRequests() throws Exception {
+		when(writePipeline.submitAddExistingContact("1", "2")).thenThrow(WriteQueueFullException.INSTANCE);
+
+		mockMvc.perform(put("/v1/address-book/contact/addexisting/1~2").header("Prefer", "respond-async"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "1"));
+
+		verify(addressBookService, never()).addExistingContact(any(), any());
+	}
+
+	@Test
+	@DisplayName("Too Many Requests is not recorded, so a retry with the same Idempotency-Key is queued")
+	void addExistingContact_retriedAfterTooManyRequestsWithIdempotencyKey_isQueued() throws Exception {
+		when(writePipeline.submitAddExistingContact("1", "2")).thenThrow(WriteQueueFullException.INSTANCE)
+				.thenReturn(new ContactWritePipeline.Ticket("req-2", new CompletableFuture<>()));
+
+		mockMvc.perform(put("/v1/address-book/contact/addexisting/1~2").header("Prefer", "respond-async")
+				.header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "link-2")).andExpect(status().isTooManyRequests());
+		mockMvc.perform(put("/v1/address-book/contact/addexisting/1~2").header("Prefer", "respond-async")
+				.header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "link-2")).andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/v1/address-book/requests/req-2"))
+				.andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+		verify(writePipeline, times(2)).submitAddExistingContact("1", "2");
+	}
+
+	@Test
+	@DisplayName("Status of a queued write request is returned as JSON")
+	void getWriteRequestStatus_returnsState() throws Exception {
+		when(writePipeline.getStatus("req-1"))
+				.thenReturn(new WriteRequestStatus("req-1", State.COMPLETED, "Contact added to Address Book"));
+
+		mockMvc.perform(get("/v1/address-book/requests/req-1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.state").value("COMPLETED"))
+				.andExpect(jsonPath("$.message").value("Contact added to Address Book"));
+	}
+
+	@Test
+	@DisplayName("Change feed returns the changes after the offset and the offset to continue from")
+	void getChanges_returnsChangesAndNextOffset() throws Exception {
+		when(changeFeedService.awaitChanges(41L, 100, Duration.ofSeconds(5))).thenReturn(CompletableFuture.completedFuture(new ChangeFeedPage(
+				List.of(new ContactChangeDto(42L, ContactChange.Type.LINKED, 7L, 1L, Instant.parse("2026-01-01T00:00:00Z"))), 42L)));
+
+		MvcResult result = mockMvc.perform(get("/v1/address-book/changes").param("after", "41").param("wait", "5"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[0].offset").value(42))
+				.andExpect(jsonPath("$.changes[0].type").value("LINKED"))
+				.andExpect(jsonPath("$.changes[0].contactId").value(7))
+				.andExpect(jsonPath("$.nextOffset").value(42));
+	}
+
+	@Test
+	@DisplayName("Change feed rejects a wait longer than the maximum")
+	void getChanges_waitTooLong_returnsBadRequest() throws Exception {
+		mockMvc.perform(get("/v1/address-book/changes").param("wait", "31"))
+				.andExpect(status().isBadRequest());
+
+		verify(changeFeedService, never()).awaitChanges(anyLong(), anyInt(), any());
+	}
+
+	@Test
+	@DisplayName("Change feed returns 410 with the earliest retained offset when changes after the offset were purged")
+	void getChanges_purgedOffset_returnsGone() throws Exception {
+		when(changeFeedService.awaitChanges(5L, 100, Duration.ZERO))
+				.thenReturn(CompletableFuture.failedFuture(new ChangeFeedGapException(20L)));
+
+		MvcResult result = mockMvc.perform(get("/v1/address-book/changes").param("after", "5"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isGone())
+				.andExpect(jsonPath("$.earliestOffset").value(20));
+	}
+}
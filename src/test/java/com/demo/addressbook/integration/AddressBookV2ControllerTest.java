@@ -0,0 +1,126 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.demo.addressbook.controller.AddressBookV2Controller;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.AddressBook;
+import com.demo.addressbook.exception.InputValidationException;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactService;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+@WebMvcTest(AddressBookV2Controller.class)
+class AddressBookV2ControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockitoBean
+	private AddressBookService addressBookService;
+
+	@MockitoBean
+	private ContactService contactService;
+
+	@Test
+	@DisplayName("Adding an address book returns it as JSON")
+	void addAddressBook_returnsJson() throws Exception {
+		AddressBook addressBook = new AddressBook("MyBook");
+		addressBook.setAddressBookId(3L);
+		when(addressBookService.addAddressBook("MyBook")).thenReturn(addressBook);
+
+		mockMvc.perform(put("/v2/address-book/add/MyBook")).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.addressBookId").value(3)).andExpect(jsonPath("$.name").value("MyBook"));
+	}
+
+	@Test
+	@DisplayName("Contacts of an address book are streamed as a JSON array")
+	void getContacts_streamsJsonArray() throws Exception {
+		doAnswer(invocation -> {
+			Consumer<ContactDto> consumer = invocation.getArgument(1);
+			consumer.accept(new ContactDto(1L, "Matthew", "Hayden", null, "matt@example.com", "+61 123 456 789"));
+			consumer.accept(new ContactDto(2L, "Andrew", "Symonds", "Qld \"Bulls\"", null, "+61 234 567 890"));
+			return 2L;
+		}).when(addressBookService).exportContactsByAddressBookId(eq("1"), any());
+
+		JsonNode contacts = objectMapper.readTree(streamedBody("/v2/address-book/contacts/1"));
+		assertTrue(contacts.isArray());
+		assertEquals(2, contacts.size());
+		assertEquals("Matthew", contacts.get(0).get("firstName").asString());
+		assertTrue(contacts.get(0).get("orgName").isNull());
+		assertEquals("Qld \"Bulls\"", contacts.get(1).get("orgName").asString());
+		assertEquals(2L, contacts.get(1).get("contactId").asLong());
+	}
+
+	@Test
+	@DisplayName("An unknown address book is rejected before the response is streamed")
+	void getContacts_unknownAddressBook_returnsNotFound() throws Exception {
+		doThrow(new InputValidationException("Address Book not found")).when(addressBookService).requireAddressBook("9");
+
+		mockMvc.perform(get("/v2/address-book/contacts/9")).andExpect(status().isNotFound());
+		verify(addressBookService, never()).exportContactsByAddressBookId(any(), any());
+	}
+
+	@Test
+	@DisplayName("All contacts with none stored is an empty JSON array")
+	void getAllContacts_empty_streamsEmptyArray() throws Exception {
+		when(contactService.exportAllContacts(any())).thenReturn(0L);
+
+		assertEquals("[]", streamedBody("/v2/address-book/allcontacts"));
+	}
+
+	@Test
+	@DisplayName("A failed export is not answered with a truncated but well-formed array")
+	void getAllContacts_failsPartWay_doesNotCloseArray() throws Exception {
+		when(contactService.exportAllContacts(any())).thenAnswer(invocation -> {
+			Consumer<ContactDto> consumer = invocation.getArgument(0);
+			consumer.accept(new ContactDto(1L, "Matthew", "Hayden", null, null, "+61 123 456 789"));
+			throw new IllegalStateException("Connection lost");
+		});
+
+		MvcResult result = mockMvc.perform(get("/v2/address-book/allcontacts")).andExpect(request().asyncStarted()).andReturn();
+		String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isInternalServerError()).andReturn()
+				.getResponse().getContentAsString();
+		assertFalse(body.startsWith("["), body);
+	}
+
+	private String streamedBody(String url) throws Exception {
+		MvcResult result = mockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)).andReturn().getResponse()
+				.getContentAsString();
+	}
+}
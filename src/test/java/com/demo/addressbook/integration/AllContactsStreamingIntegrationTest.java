@@ -0,0 +1,86 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// A million contacts exported as NDJSON over a real connection: the server must stream them from the cursor,
+// so live heap stays flat instead of growing with the number of contacts
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+class AllContactsStreamingIntegrationTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AllContactsStreamingIntegrationTest.class);
+
+	static final int CONTACTS = 1_000_000;
+	static final int SAMPLE_EVERY = 100_000;
+	// Holding the exported DTOs alone would take well over this
+	static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+	// Seeded with one set-based insert so that neither the search index nor the persistence context holds the rows
+	private static final String SEED_CONTACTS = "insert into contact (contact_id, first_name, last_name, contact_number) "
+			+ "select x, 'First' || x, 'Streamed', '+61 400 000 000' from system_range(1, ?)";
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void exportAllContacts_millionRows_keepsHeapBounded() throws Exception {
+		HttpClient client = HttpClient.newHttpClient();
+		// Warms up the server, the client and the export path on an empty table before the baseline is taken
+		assertEquals(0, export(client, () -> {
+		}));
+
+		jdbcTemplate.update(SEED_CONTACTS, CONTACTS);
+		long baseline = liveHeap();
+		long[] peak = { baseline };
+		int lines = export(client, () -> peak[0] = Math.max(peak[0], liveHeap()));
+
+		assertEquals(CONTACTS, lines);
+		long growth = peak[0] - baseline;
+		LOGGER.info("Streamed {} contacts, live heap grew by {} KB at most", lines, growth / 1024);
+		assertTrue(growth < MAX_HEAP_GROWTH_BYTES, "live heap grew by " + growth + " bytes");
+	}
+
+	// Reads the export line by line, running sample every SAMPLE_EVERY lines, and returns the number of lines
+	private int export(HttpClient client, Runnable sample) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/address-book/allcontacts?format=ndjson")).build();
+		HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		assertEquals(200, response.statusCode());
+		int lines = 0;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+			while (reader.readLine() != null) {
+				if (++lines % SAMPLE_EVERY == 0) {
+					sample.run();
+				}
+			}
+		}
+		return lines;
+	}
+
+	// Heap still in use after a full collection, i.e. what the export actually retains
+	private static long liveHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,106 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.demo.addressbook.dto.ChangeFeedPage;
+import com.demo.addressbook.dto.ContactChangeDto;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.ContactChange.Type;
+import com.demo.addressbook.exception.ChangeFeedGapException;
+import com.demo.addressbook.repository.ContactChangeRepository;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ChangeFeedService;
+
+// Contact mutations appear in the change feed in commit order, and a consumer only reads what it has not seen.
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ChangeFeedIntegrationTest {
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	ChangeFeedService changeFeedService;
+
+	@Autowired
+	ContactChangeRepository changeRepository;
+
+	@Test
+	void mutations_areFedOnceInCommitOrder() {
+		long offset = headOffset();
+		Long sourceId = addressBookService.addAddressBook("FeedSource").getAddressBookId();
+		Long targetId = addressBookService.addAddressBook("FeedTarget").getAddressBookId();
+		addressBookService.addContact(String.valueOf(sourceId), new ContactDto(null, "Matthew", "Hayden", null, null, "+61 400 000 000"));
+		Long contactId = addressBookService.findAllContactsByAddressBookId(String.valueOf(sourceId)).iterator().next().getContactId();
+		addressBookService.addExistingContact(String.valueOf(targetId), String.valueOf(contactId));
+		// Already linked, so no change is recorded
+		addressBookService.addExistingContact(String.valueOf(targetId), String.valueOf(contactId));
+		addressBookService.removeContactsByAddressBookId(String.valueOf(sourceId), List.of(contactId));
+		addressBookService.removeContactsByAddressBookId(String.valueOf(targetId), List.of(contactId));
+
+		ChangeFeedPage page = changeFeedService.getChanges(offset, ChangeFeedService.MAX_FEED_SIZE);
+
+		assertEquals(List.of(Type.CREATED, Type.LINKED, Type.LINKED, Type.UNLINKED, Type.UNLINKED, Type.DELETED),
+				page.changes().stream().map(ContactChangeDto::type).toList());
+		assertTrue(page.changes().stream().allMatch(change -> contactId.equals(change.contactId())));
+		assertEquals(List.of(sourceId, targetId), page.changes().stream().filter(change -> change.type() == Type.LINKED)
+				.map(ContactChangeDto::addressBookId).toList());
+		for (int i = 1; i < page.changes().size(); i++) {
+			assertEquals(page.changes().get(i - 1).offset() + 1, page.changes().get(i).offset());
+		}
+		assertEquals(0, changeFeedService.getChanges(page.nextOffset(), 100).changes().size());
+	}
+
+	@Test
+	void waitingReader_returnsOnceAChangeCommits() throws Exception {
+		long offset = headOffset();
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("FeedWaiter").getAddressBookId());
+
+		CompletableFuture<ChangeFeedPage> waiting = changeFeedService.awaitChanges(offset, 100, Duration.ofSeconds(10));
+		Thread.sleep(200);
+		assertFalse(waiting.isDone());
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Michael", "Bevan", null, null, "+61 400 000 000"));
+
+		ChangeFeedPage page = waiting.get(5, TimeUnit.SECONDS);
+		assertEquals(Type.CREATED, page.changes().get(0).type());
+		assertEquals(page.changes().get(page.changes().size() - 1).offset(), page.nextOffset());
+	}
+
+	@Test
+	void purgedOffset_isReportedAsGap() {
+		long offset = headOffset();
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("FeedPurged").getAddressBookId());
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Glenn", "McGrath", null, null, "+61 400 000 000"));
+		headOffset();
+		changeRepository.deleteChangedBefore(Instant.now().plusSeconds(1));
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Jason", "Gillespie", null, null, "+61 400 000 001"));
+
+		ChangeFeedGapException gap = assertThrows(ChangeFeedGapException.class,
+				() -> changeFeedService.getChanges(offset, 100));
+		// CREATED and LINKED of the first contact were purged
+		assertEquals(offset + 3, gap.getEarliestOffset());
+		assertEquals(offset + 3, changeFeedService.getChanges(gap.getEarliestOffset() - 1, 100).changes().get(0).offset());
+	}
+
+	private long headOffset() {
+		long offset = 0;
+		ChangeFeedPage page;
+		do {
+			page = changeFeedService.getChanges(offset, ChangeFeedService.MAX_FEED_SIZE);
+			offset = page.nextOffset();
+		} while (!page.changes().isEmpty());
+		return offset;
+	}
+}
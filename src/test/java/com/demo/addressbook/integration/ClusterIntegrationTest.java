@@ -0,0 +1,95 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.addressbook.AddressBookApplication;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactService;
+
+// Two replicas in one JVM sharing a named in-memory database, which stands in for the H2 TCP server
+class ClusterIntegrationTest {
+
+	static final long TIMEOUT_MILLIS = 5000;
+
+	ConfigurableApplicationContext first;
+	ConfigurableApplicationContext second;
+
+	@BeforeEach
+	void start() {
+		first = start("cluster-a");
+		second = start("cluster-b");
+	}
+
+	@AfterEach
+	void stop() {
+		second.close();
+		first.close();
+	}
+
+	@Test
+	void writeOnOneReplica_evictsCachedContactsOnTheOther() {
+		AddressBookService firstService = first.getBean(AddressBookService.class);
+		AddressBookService secondService = second.getBean(AddressBookService.class);
+		String addressBookId = String.valueOf(firstService.addAddressBook("Replicated").getAddressBookId());
+		firstService.addContact(addressBookId, new ContactDto(null, "Glenn", "McGrath", null, null, "+61 400 000 001"));
+		assertEquals(1, secondService.findAllContactsByAddressBookId(addressBookId).size());
+
+		firstService.addContact(addressBookId, new ContactDto(null, "Shane", "Warne", null, null, "+61 400 000 002"));
+
+		await(() -> secondService.findAllContactsByAddressBookId(addressBookId).size() == 2);
+	}
+
+	@Test
+	void contactChangesOnOneReplica_reachTheOtherSearchIndex() {
+		AddressBookService firstService = first.getBean(AddressBookService.class);
+		ContactService secondContacts = second.getBean(ContactService.class);
+		String addressBookId = String.valueOf(firstService.addAddressBook("Searchable").getAddressBookId());
+
+		firstService.addContact(addressBookId, new ContactDto(null, "Adam", "Gilchrist", null, null, "+61 400 000 003"));
+		await(() -> lastNames(secondContacts.searchContacts("gilchrist", false, 10)).equals(List.of("Gilchrist")));
+
+		Long contactId = secondContacts.searchContacts("gilchrist", false, 10).get(0).getContactId();
+		firstService.removeContactByAddressBookId(addressBookId, new ContactDto(contactId, "Adam", "Gilchrist", null, null, "+61 400 000 003"));
+		await(() -> secondContacts.searchContacts("gilchrist", false, 10).isEmpty());
+	}
+
+	// Command line arguments, as default properties would lose to the TCP url in application-clustered.properties
+	private static ConfigurableApplicationContext start(String name) {
+		return new SpringApplicationBuilder(AddressBookApplication.class).web(WebApplicationType.NONE)
+				.profiles("clustered")
+				.run("--spring.application.name=" + name,
+						"--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1",
+						"--addressbook.db.password=cluster-test",
+						"--addressbook.cluster.poll-interval=50");
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "Replicas did not converge within " + TIMEOUT_MILLIS + " ms");
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AssertionError(e);
+			}
+		}
+	}
+
+	private static List<String> lastNames(List<Contact> contacts) {
+		return contacts.stream().map(Contact::getLastName).toList();
+	}
+}
@@ -0,0 +1,122 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.repository.ContactRepository;
+import com.demo.addressbook.service.AddressBookService;
+
+// Many writers against one hot address book: every write must land exactly once
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ConcurrentWritesIntegrationTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentWritesIntegrationTest.class);
+
+	static final int THREADS = 16;
+	static final int WRITES_PER_THREAD = 25;
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	ContactRepository contactRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void concurrentAddContact_toOneAddressBook_losesNoUpdates() throws Exception {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("HotBook").getAddressBookId());
+
+		long elapsedNanos = runConcurrently(thread -> () -> {
+			for (int i = 0; i < WRITES_PER_THREAD; i++) {
+				addressBookService.addContact(addressBookId,
+						new ContactDto(null, "Hot" + thread + "x" + i, "Writer", null, null, "+61 400 000 000"));
+			}
+			return null;
+		});
+
+		assertEquals(THREADS * WRITES_PER_THREAD, addressBookService.findAllContactsByAddressBookId(addressBookId).size());
+		LOGGER.info("addContact on one address book: {} threads, {} writes/s", THREADS,
+				THREADS * WRITES_PER_THREAD * 1_000_000_000L / elapsedNanos);
+	}
+
+	@Test
+	void concurrentAddExistingContact_sameLinks_linkEachContactOnce() throws Exception {
+		String sourceId = String.valueOf(addressBookService.addAddressBook("LinkSource").getAddressBookId());
+		String targetId = String.valueOf(addressBookService.addAddressBook("LinkTarget").getAddressBookId());
+		List<Long> contactIds = new ArrayList<>();
+		for (int i = 0; i < WRITES_PER_THREAD; i++) {
+			addressBookService.addContact(sourceId, new ContactDto(null, "Linked" + i, "Racer", null, null, "+61 400 000 000"));
+		}
+		addressBookService.findAllContactsByAddressBookId(sourceId).forEach(contact -> contactIds.add(contact.getContactId()));
+
+		// Every thread links the same contacts, so the same join rows are inserted concurrently
+		long elapsedNanos = runConcurrently(thread -> () -> {
+			for (Long contactId : contactIds) {
+				addressBookService.addExistingContact(targetId, String.valueOf(contactId));
+			}
+			return null;
+		});
+
+		assertEquals(WRITES_PER_THREAD, jdbcTemplate.queryForObject(
+				"select count(*) from address_book_contact where address_book_id = ?", Integer.class, Long.valueOf(targetId)));
+		LOGGER.info("addExistingContact of the same links: {} threads, {} writes/s", THREADS,
+				THREADS * WRITES_PER_THREAD * 1_000_000_000L / elapsedNanos);
+	}
+
+	@Test
+	void staleContactUpdate_failsInsteadOfOverwriting() {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("Versioned").getAddressBookId());
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Damien", "Martyn", null, null, "+61 400 000 000"));
+		Long contactId = contactRepository.findByFirstNameInAndLastNameIn(List.of("Damien"), List.of("Martyn")).get(0).getContactId();
+
+		Contact first = contactRepository.findById(contactId).orElseThrow();
+		Contact second = contactRepository.findById(contactId).orElseThrow();
+		first.setOrgName("Western Australia");
+		contactRepository.save(first);
+		second.setOrgName("Queensland");
+
+		assertThrows(OptimisticLockingFailureException.class, () -> contactRepository.save(second));
+		assertEquals("Western Australia", contactRepository.findById(contactId).orElseThrow().getOrgName());
+	}
+
+	// Starts every writer at once and returns the wall-clock time until the last one finished
+	private static long runConcurrently(WriterFactory writers) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int thread = 0; thread < THREADS; thread++) {
+				tasks.add(writers.writer(thread));
+			}
+			long start = System.nanoTime();
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+			return System.nanoTime() - start;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	interface WriterFactory {
+		Callable<Void> writer(int thread);
+	}
+}
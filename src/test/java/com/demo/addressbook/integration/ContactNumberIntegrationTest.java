@@ -0,0 +1,68 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactNumberBackfill;
+import com.demo.addressbook.service.ContactService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ContactNumberIntegrationTest {
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	ContactService contactService;
+
+	@Autowired
+	ContactNumberBackfill backfill;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void findContactsByNumber_matchesAnyFormattingInOneStatement() {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("NumberLookup").getAddressBookId());
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Ricky", "Ponting", null, null, "+61 (2) 9876-5432"));
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		assertEquals(List.of("Ponting"), lastNames(contactService.findContactsByNumber("0061 2 9876 5432")));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void backfill_normalizesRowsWithoutNormalizedNumber() {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("NumberBackfill").getAddressBookId());
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Justin", "Langer", null, null, "+61 811 222 333"));
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Brett", "Lee", null, null, "+61 811 222 444"));
+		jdbcTemplate.update("update contact set normalized_contact_number = null where last_name in ('Langer', 'Lee')");
+		assertEquals(List.of(), contactService.findContactsByNumber("+61 811 222 333"));
+
+		backfill.backfill();
+		assertEquals(List.of("Langer"), lastNames(contactService.findContactsByNumber("+61 811 222 333")));
+		assertEquals(List.of("Lee"), lastNames(contactService.findContactsByNumber("61811222444")));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from contact where normalized_contact_number is null and last_name in ('Langer', 'Lee')", Integer.class));
+	}
+
+	private static List<String> lastNames(List<Contact> contacts) {
+		return contacts.stream().map(Contact::getLastName).toList();
+	}
+}
@@ -0,0 +1,83 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.repository.ContactRepository;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactService;
+
+// The search index follows contacts written through every AddressBookService path, once the write commits
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContactSearchIntegrationTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	ContactService contactService;
+
+	@Autowired
+	ContactRepository contactRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Test
+	void addedAndImportedContacts_areSearchable() throws Exception {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("SearchAdded").getAddressBookId());
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Glenn", "Mcgrath", "Bowlers", null, "+61 111 222 333"));
+		addressBookService.importContacts(addressBookId,
+				List.of(new ContactDto(null, "Jason", "Gillespie", "Bowlers", "dizzy@example.com", "+61 444 555 666")));
+
+		assertEquals(List.of("Mcgrath"), lastNames(contactService.searchContacts("mcgr", false, 10)));
+		assertEquals(List.of("Gillespie"), lastNames(contactService.searchContacts("dizzy@example.com", false, 10)));
+		assertEquals(2, contactService.searchContacts("bowlers", false, 10).size());
+		mockMvc.perform(get("/v1/address-book/contacts/search").param("q", "gilespie").param("fuzzy", "true"))
+				.andExpect(status().isOk()).andExpect(content().string(Matchers.containsString("lastName=Gillespie")));
+	}
+
+	@Test
+	void removedOrphanContact_isNoLongerSearchable() {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("SearchRemoved").getAddressBookId());
+		addressBookService.addContact(addressBookId, new ContactDto(null, "Damien", "Martyn", null, null, "+61 777 888 999"));
+		Contact contact = contactService.searchContacts("martyn", false, 10).get(0);
+
+		addressBookService.removeContactByAddressBookId(addressBookId,
+				new ContactDto(contact.getContactId(), null, null, null, null, null));
+		assertEquals(List.of(), contactService.searchContacts("martyn", false, 10));
+	}
+
+	@Test
+	void rolledBackContact_isNotSearchable() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			contactRepository.saveAndFlush(new Contact("Darren", "Lehmann", "+61 121 212 121"));
+			status.setRollbackOnly();
+		});
+
+		assertEquals(List.of(), contactService.searchContacts("lehmann", false, 10));
+	}
+
+	private static List<String> lastNames(List<Contact> contacts) {
+		return contacts.stream().map(Contact::getLastName).toList();
+	}
+}
@@ -0,0 +1,76 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.dto.WriteRequestStatus.State;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactWritePipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Queued add contact requests are committed in groups, and a failing write does not fail the rest of its group
+@SpringBootTest(properties = { "spring.jpa.show-sql=false", "addressbook.write-pipeline.enabled=true",
+		"addressbook.write-pipeline.max-linger=50ms" })
+class ContactWritePipelineIntegrationTest {
+
+	static final int WRITES = 100;
+
+	@Autowired
+	ContactWritePipeline writePipeline;
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void queuedAddContact_isCommittedInGroups() throws Exception {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("QueuedBook").getAddressBookId());
+		// Read once so that the group commit has to evict the cached contacts
+		assertEquals(0, addressBookService.findAllContactsByAddressBookId(addressBookId).size());
+
+		List<ContactWritePipeline.Ticket> tickets = new ArrayList<>();
+		for (int i = 0; i < WRITES; i++) {
+			tickets.add(writePipeline.submitAddContact(addressBookId,
+					new ContactDto(null, "Queued" + i, "Writer", null, null, "+61 400 000 000")));
+		}
+		for (ContactWritePipeline.Ticket ticket : tickets) {
+			assertEquals("Contact added to Address Book", ticket.result().get(10, TimeUnit.SECONDS));
+			assertEquals(State.COMPLETED, writePipeline.getStatus(ticket.requestId()).state());
+		}
+
+		assertEquals(WRITES, addressBookService.findAllContactsByAddressBookId(addressBookId).size());
+		assertTrue(meterRegistry.get("addressbook.write.pipeline.group.size").summary().max() > 1);
+	}
+
+	@Test
+	void duplicateInGroup_failsAloneWhileOthersCommit() throws Exception {
+		String addressBookId = String.valueOf(addressBookService.addAddressBook("GroupReplay").getAddressBookId());
+
+		ContactWritePipeline.Ticket first = writePipeline.submitAddContact(addressBookId,
+				new ContactDto(null, "Ricky", "Ponting", null, null, "+61 400 000 000"));
+		ContactWritePipeline.Ticket duplicate = writePipeline.submitAddContact(addressBookId,
+				new ContactDto(null, "Ricky", "Ponting", null, null, "+61 400 000 001"));
+		ContactWritePipeline.Ticket other = writePipeline.submitAddContact(addressBookId,
+				new ContactDto(null, "Justin", "Langer", null, null, "+61 400 000 002"));
+
+		assertEquals("Contact added to Address Book", first.result().get(10, TimeUnit.SECONDS));
+		assertEquals("Contact added to Address Book", other.result().get(10, TimeUnit.SECONDS));
+		assertThrows(ExecutionException.class, () -> duplicate.result().get(10, TimeUnit.SECONDS));
+		assertEquals(State.FAILED, writePipeline.getStatus(duplicate.requestId()).state());
+		assertEquals(2, addressBookService.findAllContactsByAddressBookId(addressBookId).size());
+	}
+}
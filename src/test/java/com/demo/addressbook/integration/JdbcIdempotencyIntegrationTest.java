@@ -0,0 +1,76 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.demo.addressbook.idempotency.IdempotencyFilter;
+import com.demo.addressbook.idempotency.IdempotencyStore;
+import com.demo.addressbook.idempotency.IdempotencyStore.StoredResponse;
+
+// Idempotency-Key responses kept in the idempotency_key table, as replicas of the clustered profile do
+@SpringBootTest(properties = { "addressbook.idempotency.store=jdbc", "spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate" })
+@AutoConfigureMockMvc
+class JdbcIdempotencyIntegrationTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	IdempotencyStore store;
+
+	@Test
+	void retriedAddAddressBook_isReplayedInsteadOfRejectedAsDuplicate() throws Exception {
+		String body = mockMvc.perform(put("/v1/address-book/add/Retried").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "retried-book"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		mockMvc.perform(put("/v1/address-book/add/Retried").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "retried-book"))
+				.andExpect(status().isOk()).andExpect(content().string(body))
+				.andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+		// Without the key the same request executes and hits the unique name
+		mockMvc.perform(put("/v1/address-book/add/Retried")).andExpect(status().isConflict());
+
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from address_book where normalized_name = 'retried'", Integer.class));
+		assertEquals(200, jdbcTemplate.queryForObject("select status from idempotency_key where idempotency_key = 'retried-book'", Integer.class));
+	}
+
+	@Test
+	void claimInProgressPastTheLease_isTakenOverBySameRequestOnly() {
+		assertTrue(store.claim("abandoned", "fingerprint").isEmpty());
+		assertTrue(store.claim("abandoned", "fingerprint").orElseThrow().inProgress());
+
+		// The pod handling the first claim died a minute ago
+		jdbcTemplate.update("update idempotency_key set created_at = dateadd('MINUTE', -1, current_timestamp) where idempotency_key = 'abandoned'");
+		assertEquals("fingerprint", store.claim("abandoned", "other").orElseThrow().fingerprint());
+		assertTrue(store.claim("abandoned", "fingerprint").isEmpty());
+		assertTrue(store.claim("abandoned", "fingerprint").orElseThrow().inProgress());
+	}
+
+	@Test
+	void recordedHeaders_areReturnedWithTheEntry() {
+		Map<String, String> headers = Map.of("Location", "/v1/address-book/requests/req-1");
+		assertTrue(store.claim("queued-write", "fingerprint").isEmpty());
+		store.complete("queued-write", new StoredResponse(202, "text/plain", headers, "Request accepted:req-1".getBytes(StandardCharsets.UTF_8)));
+
+		StoredResponse replayed = store.claim("queued-write", "fingerprint").orElseThrow().response();
+		assertEquals(202, replayed.status());
+		assertEquals(headers, replayed.headers());
+	}
+}
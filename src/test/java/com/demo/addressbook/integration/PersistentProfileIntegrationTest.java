@@ -0,0 +1,65 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.demo.addressbook.AddressBookApplication;
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.service.AddressBookService;
+import com.demo.addressbook.service.ContactService;
+
+class PersistentProfileIntegrationTest {
+
+	@TempDir
+	Path dataDir;
+
+	@Test
+	void restart_keepsDataAndReappliesNoMigrations() {
+		String addressBookId;
+		List<String> migrations;
+		try (ConfigurableApplicationContext context = start()) {
+			AddressBookService addressBookService = context.getBean(AddressBookService.class);
+			addressBookId = String.valueOf(addressBookService.addAddressBook("Durable").getAddressBookId());
+			addressBookService.addContact(addressBookId, new ContactDto(null, "Steve", "Waugh", null, null, "+61 400 111 222"));
+			migrations = appliedMigrations(context);
+			// A fresh database in the temporary directory, migrated from V1 to the latest version
+			assertEquals(Arrays.stream(context.getBean(Flyway.class).info().all()).map(info -> info.getVersion().getVersion()).toList(),
+					migrations);
+		}
+		assertTrue(Files.exists(dataDir.resolve("addbookdb.mv.db")));
+
+		try (ConfigurableApplicationContext context = start()) {
+			AddressBookService addressBookService = context.getBean(AddressBookService.class);
+			ContactService contactService = context.getBean(ContactService.class);
+			assertEquals(1, addressBookService.findAllContactsByAddressBookId(addressBookId).size());
+			// The search index is rebuilt from the contacts already on disk
+			assertEquals(List.of("Waugh"), contactService.searchContacts("waugh", false, 10).stream().map(Contact::getLastName).toList());
+			assertEquals(migrations, appliedMigrations(context));
+		}
+	}
+
+	private static List<String> appliedMigrations(ConfigurableApplicationContext context) {
+		return context.getBean(JdbcTemplate.class).queryForList(
+				"select \"version\" from \"flyway_schema_history\" where \"type\" = 'SQL' and \"success\" order by \"installed_rank\"", String.class);
+	}
+
+	// Passed as a command line argument: default properties would lose to the data-dir in the profile's properties
+	private ConfigurableApplicationContext start() {
+		return new SpringApplicationBuilder(AddressBookApplication.class).web(WebApplicationType.NONE)
+				.profiles("persistent").run("--addressbook.data-dir=" + dataDir.toAbsolutePath());
+	}
+}
@@ -0,0 +1,133 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.AddressBook;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactRepository;
+import com.demo.addressbook.service.AddressBookService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = { "addressbook.second-level-cache.enabled=true",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+class SecondLevelCacheIntegrationTest {
+
+	private static final String CONTACTS_ROLE = AddressBook.class.getName() + ".contacts";
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	AddressBookRepository addressBookRepository;
+
+	@Autowired
+	ContactRepository contactRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void addressBookAndContacts_areServedFromSecondLevelCache() {
+		Long addressBookId = createAddressBookWithContacts("CacheRead", "Cacheread");
+
+		contactIdsOf(addressBookId);
+		statistics.clear();
+		contactIdsOf(addressBookId);
+
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionLoadCount());
+		assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+		assertTrue(entityManagerFactory.getCache().contains(AddressBook.class, addressBookId));
+	}
+
+	@Test
+	void removeContact_invalidatesCachedCollectionAndOrphan() {
+		Long addressBookId = createAddressBookWithContacts("CacheRemove", "Cacheremove");
+		Set<Long> contactIds = contactIdsOf(addressBookId);
+		Long removedId = contactIds.iterator().next();
+		assertTrue(entityManagerFactory.getCache().contains(Contact.class, removedId));
+
+		addressBookService.removeContactByAddressBookId(String.valueOf(addressBookId),
+				new ContactDto(removedId, null, null, null, null, null));
+
+		Set<Long> remaining = contactIdsOf(addressBookId);
+		assertEquals(contactIds.size() - 1, remaining.size());
+		assertFalse(remaining.contains(removedId));
+		// The orphaned contact is deleted and must not be resurrected from the entity cache
+		assertTrue(contactRepository.findById(removedId).isEmpty());
+	}
+
+	@Test
+	void importContacts_invalidatesCachedCollection() {
+		Long addressBookId = createAddressBookWithContacts("CacheImport", "Cacheimport");
+		int before = contactIdsOf(addressBookId).size();
+		assertTrue(isCollectionCached(addressBookId));
+
+		addressBookService.importContacts(String.valueOf(addressBookId),
+				List.of(new ContactDto(null, "Imported", "Cacheimport", null, null, "+61 111 111 111")));
+
+		assertFalse(isCollectionCached(addressBookId));
+		assertEquals(before + 1, contactIdsOf(addressBookId).size());
+	}
+
+	@Test
+	void addExistingContact_invalidatesCachedCollections() {
+		Long addressBookId = createAddressBookWithContacts("CacheLink", "Cachelink");
+		Long otherId = createAddressBookWithContacts("CacheLinkOther", "Cachelinkother");
+		Long linkedId = contactIdsOf(otherId).iterator().next();
+		contactIdsOf(addressBookId);
+		assertTrue(isCollectionCached(addressBookId));
+
+		addressBookService.addExistingContact(String.valueOf(addressBookId), String.valueOf(linkedId));
+
+		assertFalse(isCollectionCached(addressBookId));
+		assertTrue(contactIdsOf(addressBookId).contains(linkedId));
+	}
+
+	private Long createAddressBookWithContacts(String name, String lastName) {
+		Long addressBookId = addressBookService.addAddressBook(name).getAddressBookId();
+		addressBookService.addContact(String.valueOf(addressBookId),
+				new ContactDto(null, "First", lastName, null, null, "+61 123 456 789"));
+		addressBookService.addContact(String.valueOf(addressBookId),
+				new ContactDto(null, "Second", lastName, null, null, "+61 234 567 890"));
+		return addressBookId;
+	}
+
+	private Set<Long> contactIdsOf(Long addressBookId) {
+		return transactionTemplate.execute(status -> addressBookRepository.findById(addressBookId).get().getContacts()
+				.stream().map(Contact::getContactId).collect(Collectors.toSet()));
+	}
+
+	private boolean isCollectionCached(Long addressBookId) {
+		return entityManagerFactory.unwrap(SessionFactory.class).getCache().containsCollection(CONTACTS_ROLE,
+				addressBookId);
+	}
+}
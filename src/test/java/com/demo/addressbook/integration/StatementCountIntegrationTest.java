@@ -0,0 +1,217 @@
+package com.demo.addressbook.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.service.AddressBookService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Asserts that each read request issues a fixed number of statements however many contacts are involved.
+// Hibernate statistics only see statements prepared by Hibernate; writes that go through JdbcTemplate are
+// counted at the DataSource instead.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class StatementCountIntegrationTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	Statistics statistics;
+
+	@TestConfiguration
+	static class StatementCountingConfig {
+
+		@Bean
+		static BeanPostProcessor statementCountingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? new StatementCountingDataSource(dataSource) : bean;
+				}
+			};
+		}
+	}
+
+	// Counts the statements created or prepared on the current thread by any client of the DataSource
+	static class StatementCountingDataSource extends DelegatingDataSource {
+
+		static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+		StatementCountingDataSource(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return counting(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return counting(super.getConnection(username, password));
+		}
+
+		private static Connection counting(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+					(proxy, method, args) -> {
+						String name = method.getName();
+						if (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall")) {
+							STATEMENTS.get()[0]++;
+						}
+						try {
+							return method.invoke(connection, args);
+						} catch (InvocationTargetException e) {
+							throw e.getCause();
+						}
+					});
+		}
+
+		static void reset() {
+			STATEMENTS.get()[0] = 0;
+		}
+
+		static long count() {
+			return STATEMENTS.get()[0];
+		}
+	}
+
+	@BeforeEach
+	void setup() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		cacheManager.getCache(AddressBookService.CONTACTS_CACHE).clear();
+	}
+
+	@Test
+	void getContacts_statementCountIndependentOfBookSize() throws Exception {
+		Long small = createAddressBook("StatementsSmall", 2);
+		Long large = createAddressBook("StatementsLarge", 40);
+
+		assertEquals(1, statementsFor("/v1/address-book/contacts/" + small, status().isOk()));
+		assertEquals(1, statementsFor("/v1/address-book/contacts/" + large, status().isOk()));
+	}
+
+	@Test
+	void getContactsPage_statementCountIndependentOfBookSize() throws Exception {
+		Long large = createAddressBook("StatementsPaged", 40);
+
+		// existence check, page query and count query
+		assertEquals(3, statementsFor("/v1/address-book/contacts/" + large + "?page=1&size=10", status().isOk()));
+		// existence check and keyset query
+		assertEquals(2, statementsFor("/v1/address-book/contacts/" + large + "?afterContactId=0&size=10", status().isOk()));
+	}
+
+	@Test
+	void addDuplicateContact_doesNotWalkAddressBooks() throws Exception {
+		Long addressBookId = createAddressBook("StatementsDup", 1);
+		for (int i = 0; i < 5; i++) {
+			addressBookService.addExistingContact(String.valueOf(createAddressBook("StatementsDup" + i, 0)),
+					String.valueOf(firstContactId(addressBookId)));
+		}
+
+		statistics.clear();
+		mockMvc.perform(put("/v1/address-book/contact/add/" + addressBookId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"firstName\":\"Contact0\",\"lastName\":\"StatementsDup\",\"contactNumber\":\"+61 000 000\"}"))
+				.andExpect(status().isConflict());
+		// name existence probe and address book names projection
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void removeContact_statementCountIndependentOfBookSize() throws Exception {
+		Long small = createAddressBook("StatementsRemoveS", 2);
+		Long large = createAddressBook("StatementsRemoveL", 40);
+
+		// existence check, join row delete, orphan delete and the UNLINKED and DELETED change inserts
+		assertEquals(5, removeStatementsFor(small));
+		assertEquals(5, removeStatementsFor(large));
+	}
+
+	@Test
+	void addExistingContact_insertsLinkWithoutLoadingContacts() throws Exception {
+		Long source = createAddressBook("StatementsLinkSrc", 1);
+		Long target = createAddressBook("StatementsLinkDst", 40);
+		Long contactId = firstContactId(source);
+
+		for (int i = 0; i < 2; i++) {
+			statistics.clear();
+			StatementCountingDataSource.reset();
+			mockMvc.perform(put("/v1/address-book/contact/addexisting/" + target + "~" + contactId)).andExpect(status().isOk());
+			// contact existence, address book existence and the guarded insert-select, plus the LINKED change
+			// insert when a link was added
+			assertEquals(i == 0 ? 4 : 3, StatementCountingDataSource.count());
+			assertEquals(0, statistics.getCollectionLoadCount());
+		}
+		// Linking twice leaves a single link
+		assertEquals(41, addressBookService.findAllContactsByAddressBookId(String.valueOf(target)).size());
+	}
+
+	private long removeStatementsFor(Long addressBookId) throws Exception {
+		Long contactId = firstContactId(addressBookId);
+		StatementCountingDataSource.reset();
+		mockMvc.perform(delete("/v1/address-book/contact/remove/" + addressBookId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"contactId\":" + contactId + ",\"firstName\":\"Contact0\",\"lastName\":\"Removed\",\"contactNumber\":\"+61 000 000\"}")).andExpect(status().isOk());
+		return StatementCountingDataSource.count();
+	}
+
+	private long statementsFor(String url, ResultMatcher expectedStatus) throws Exception {
+		statistics.clear();
+		mockMvc.perform(get(url)).andExpect(expectedStatus);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Long createAddressBook(String name, int contacts) {
+		Long addressBookId = addressBookService.addAddressBook(name).getAddressBookId();
+		List<ContactDto> rows = new ArrayList<>();
+		for (int i = 0; i < contacts; i++) {
+			rows.add(new ContactDto(null, "Contact" + i, name, null, null, "+61 000 000 " + i));
+		}
+		if (!rows.isEmpty()) {
+			addressBookService.importContacts(String.valueOf(addressBookId), rows);
+		}
+		return addressBookId;
+	}
+
+	private Long firstContactId(Long addressBookId) {
+		return addressBookService.findContactsByAddressBookIdAfter(String.valueOf(addressBookId), 0, 1).get(0)
+				.getContactId();
+	}
+}
@@ -0,0 +1,170 @@
+package com.demo.addressbook.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.demo.addressbook.dto.ContactDto;
+
+class ContactSearchIndexTest {
+
+	ContactSearchIndex index;
+
+	@BeforeEach
+	void setup() {
+		index = new ContactSearchIndex();
+		index.add(new ContactDto(1L, "Matthew", "Hayden", "Queensland", "mhayden@example.com", "+61 123 456 789"));
+		index.add(new ContactDto(2L, "Andrew", "Symonds", "Queensland", null, "+61 234 567 890"));
+		index.add(new ContactDto(3L, "Shane", "Warne", "Victoria", "shane@example.com", "+61 567 890 123"));
+	}
+
+	@Test
+	void search_prefixOfAnyField_matches() {
+		assertEquals(List.of(1L), index.search("hay", false, 10));
+		assertEquals(List.of(1L, 2L), index.search("queen", false, 10));
+		assertEquals(List.of(3L), index.search("shane@ex", false, 10));
+		assertEquals(List.of(2L), index.search("61234", false, 10));
+		assertEquals(List.of(3L), index.search("890 123", false, 10));
+	}
+
+	@Test
+	void search_everyTermMustMatch() {
+		assertEquals(List.of(2L), index.search("queensland sym", false, 10));
+		assertEquals(List.of(), index.search("queensland warne", false, 10));
+	}
+
+	@Test
+	void search_fuzzy_matchesOneEditAway() {
+		assertEquals(List.of(), index.search("symmonds", false, 10));
+		assertEquals(List.of(2L), index.search("symmonds", true, 10));
+		assertEquals(List.of(3L), index.search("warme", true, 10));
+	}
+
+	@Test
+	void search_exactMatchesComeBeforePrefixMatches() {
+		index.add(new ContactDto(4L, "Matt", "Renshaw", null, null, "+61 999"));
+		assertEquals(List.of(4L, 1L), index.search("matt", false, 10));
+		assertEquals(List.of(4L), index.search("matt", false, 1));
+	}
+
+	@Test
+	void add_reindexesChangedContact() {
+		index.add(new ContactDto(3L, "Shane", "Watson", null, null, "+61 567"));
+		assertEquals(List.of(), index.search("warne", false, 10));
+		assertEquals(List.of(3L), index.search("watson", false, 10));
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void remove_dropsContactFromEveryTerm() {
+		index.remove(3L);
+		assertEquals(List.of(), index.search("shane", true, 10));
+		assertEquals(List.of(), index.search("warme", true, 10));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void rebuild_searchesUseCurrentEntriesUntilLoaded() {
+		index.rebuild(loader -> {
+			loader.accept(new ContactDto(4L, "Brett", "Lee", null, null, "+61 456"));
+			assertEquals(List.of(3L), index.search("warne", false, 10));
+			assertEquals(List.of(), index.search("brett", false, 10));
+			// A change applied while loading reaches the new entries as well
+			index.add(new ContactDto(5L, "Adam", "Gilchrist", null, null, "+61 345"));
+		});
+		assertEquals(List.of(), index.search("warne", false, 10));
+		assertEquals(List.of(4L), index.search("brett", false, 10));
+		assertEquals(List.of(5L), index.search("gilchrist", false, 10));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void rebuild_contactRemovedWhileLoading_staysRemoved() {
+		index.rebuild(loader -> {
+			// Read by the loader before the remove, handed to the index after it
+			ContactDto snapshot = new ContactDto(3L, "Shane", "Warne", "Victoria", "shane@example.com", "+61 567");
+			index.remove(3L);
+			loader.accept(snapshot);
+		});
+		assertEquals(List.of(), index.search("warne", false, 10));
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void rebuild_failedLoad_keepsCurrentEntries() {
+		assertThrows(IllegalStateException.class, () -> index.rebuild(loader -> {
+			loader.accept(new ContactDto(4L, "Brett", "Lee", null, null, "+61 456"));
+			throw new IllegalStateException("export failed");
+		}));
+		assertEquals(List.of(3L), index.search("warne", false, 10));
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void addAfterCommit_appliedOnlyWhenTransactionCommits() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.addAfterCommit(new ContactDto(5L, "Adam", "Gilchrist", null, null, "+61 345"));
+			index.removeAfterCommit(1L);
+			assertEquals(List.of(), index.search("gilchrist", false, 10));
+			assertEquals(List.of(1L), index.search("hayden", false, 10));
+			complete(TransactionSynchronization.STATUS_COMMITTED);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(List.of(5L), index.search("gilchrist", false, 10));
+		assertEquals(List.of(), index.search("hayden", false, 10));
+	}
+
+	@Test
+	void addAfterCommit_discardedOnRollback() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.addAfterCommit(new ContactDto(5L, "Adam", "Gilchrist", null, null, "+61 345"));
+			complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(List.of(), index.search("gilchrist", false, 10));
+		assertFalse(TransactionSynchronizationManager.hasResource(index));
+	}
+
+	@Test
+	void changeListener_toldCommittedContactsOnly() {
+		List<Set<Long>> committed = new ArrayList<>();
+		index.addChangeListener(committed::add);
+		index.add(new ContactDto(4L, "Brett", "Lee", null, null, "+61 456"));
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.addAfterCommit(new ContactDto(5L, "Adam", "Gilchrist", null, null, "+61 345"));
+			index.removeAfterCommit(1L);
+			complete(TransactionSynchronization.STATUS_COMMITTED);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(List.of(Set.of(1L, 5L)), committed);
+	}
+
+	@Test
+	void withinOneEdit_substitutionInsertionDeletion() {
+		assertTrue(ContactSearchIndex.withinOneEdit("warne", "warme"));
+		assertTrue(ContactSearchIndex.withinOneEdit("warne", "warnes"));
+		assertTrue(ContactSearchIndex.withinOneEdit("warne", "wane"));
+		assertFalse(ContactSearchIndex.withinOneEdit("warne", "wrane"));
+		assertFalse(ContactSearchIndex.withinOneEdit("warne", "warnest"));
+	}
+
+	private static void complete(int status) {
+		TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+	}
+}
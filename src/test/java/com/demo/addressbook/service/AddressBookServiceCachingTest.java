@@ -0,0 +1,127 @@
+package com.demo.addressbook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.entity.AddressBook;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactChangeRepository;
+import com.demo.addressbook.repository.ContactRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+@SpringJUnitConfig
+class AddressBookServiceCachingTest {
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+		@Bean
+		AddressBookRepository addressBookRepository() {
+			return mock(AddressBookRepository.class);
+		}
+
+		@Bean
+		ContactRepository contactRepository() {
+			return mock(ContactRepository.class);
+		}
+
+		@Bean
+		ContactChangeRepository changeRepository() {
+			return mock(ContactChangeRepository.class);
+		}
+
+		@Bean
+		CacheManager cacheManager() {
+			return new CaffeineCacheManager(AddressBookService.CONTACTS_CACHE);
+		}
+
+		@Bean
+		AddressBookService addressBookService(AddressBookRepository addressBookRepository,
+				ContactRepository contactRepository, ContactChangeRepository changeRepository) {
+			return new AddressBookService(addressBookRepository, contactRepository, changeRepository,
+					Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry());
+		}
+	}
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	AddressBookRepository addressBookRepository;
+
+	@Autowired
+	ContactRepository contactRepository;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	AddressBook addressBook;
+
+	@BeforeEach
+	void setup() {
+		cacheManager.getCache(AddressBookService.CONTACTS_CACHE).clear();
+		clearInvocations(addressBookRepository, contactRepository);
+		addressBook = new AddressBook("Business");
+		addressBook.getContacts().add(new Contact("Matthew", "Hayden", "+61 123 456 789"));
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(addressBookRepository.findWithContactsByAddressBookId(1L)).thenReturn(Optional.of(addressBook));
+	}
+
+	@Test
+	void findAllContacts_repeatedReads_hitTheCache() {
+		addressBookService.findAllContactsByAddressBookId("1");
+		addressBookService.findAllContactsByAddressBookId(" 1 ");
+
+		verify(addressBookRepository, times(1)).findWithContactsByAddressBookId(1L);
+	}
+
+	@Test
+	void addExistingContact_evictsOnlyThatAddressBook() {
+		when(addressBookRepository.findWithContactsByAddressBookId(2L)).thenReturn(Optional.of(new AddressBook("Personal")));
+		when(contactRepository.existsById(7L)).thenReturn(true);
+		// The join row insert, as seen by the next read of the address book
+		when(contactRepository.linkExistingToAddressBook(1L, List.of(7L))).thenAnswer(invocation -> {
+			addressBook.getContacts().add(new Contact("Shane", "Warne", "+61 567 890 123"));
+			return List.of(7L);
+		});
+		addressBookService.findAllContactsByAddressBookId("1");
+		addressBookService.findAllContactsByAddressBookId("2");
+
+		addressBookService.addExistingContact("1", "7");
+		assertEquals(2, addressBookService.findAllContactsByAddressBookId("1").size());
+		addressBookService.findAllContactsByAddressBookId("2");
+
+		verify(addressBookRepository, times(2)).findWithContactsByAddressBookId(1L);
+		verify(addressBookRepository, times(1)).findWithContactsByAddressBookId(2L);
+	}
+
+	@Test
+	void addContact_evictsAddressBook() {
+		addressBookService.findAllContactsByAddressBookId("1");
+		addressBookService.addContact("1", new ContactDto(null, "Adam", "Gilchrist", null, null, "+61 345 678 901"));
+		addressBookService.findAllContactsByAddressBookId("1");
+
+		verify(addressBookRepository, times(2)).findWithContactsByAddressBookId(1L);
+	}
+}
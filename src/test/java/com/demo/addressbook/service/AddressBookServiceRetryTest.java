@@ -0,0 +1,130 @@
+package com.demo.addressbook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.demo.addressbook.config.RetryConfig;
+import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactChangeRepository;
+import com.demo.addressbook.repository.ContactRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+// @RetryOnConflict applied through the Spring proxy: a write that loses to a concurrent writer is run again
+@SpringJUnitConfig
+class AddressBookServiceRetryTest {
+
+	@Configuration
+	@Import(RetryConfig.class)
+	static class Config {
+		@Bean
+		AddressBookRepository addressBookRepository() {
+			return mock(AddressBookRepository.class);
+		}
+
+		@Bean
+		ContactRepository contactRepository() {
+			return mock(ContactRepository.class);
+		}
+
+		@Bean
+		ContactChangeRepository changeRepository() {
+			return mock(ContactChangeRepository.class);
+		}
+
+		@Bean
+		AddressBookService addressBookService(AddressBookRepository addressBookRepository,
+				ContactRepository contactRepository, ContactChangeRepository changeRepository) {
+			return new AddressBookService(addressBookRepository, contactRepository, changeRepository,
+					Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry());
+		}
+	}
+
+	@Autowired
+	AddressBookService addressBookService;
+
+	@Autowired
+	AddressBookRepository addressBookRepository;
+
+	@Autowired
+	ContactRepository contactRepository;
+
+	@BeforeEach
+	void setup() {
+		reset(addressBookRepository, contactRepository);
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.existsById(7L)).thenReturn(true);
+	}
+
+	@Test
+	void addExistingContact_optimisticLockFailure_isRetried() {
+		when(contactRepository.linkExistingToAddressBook(1L, List.of(7L)))
+				.thenThrow(new OptimisticLockingFailureException("Address Book was updated concurrently"))
+				.thenReturn(List.of(7L));
+
+		assertEquals("Contact added to Address Book", addressBookService.addExistingContact("1", "7"));
+		verify(contactRepository, times(2)).linkExistingToAddressBook(1L, List.of(7L));
+	}
+
+	@Test
+	void addExistingContact_racingInsert_isRetried() {
+		when(contactRepository.linkExistingToAddressBook(1L, List.of(7L)))
+				.thenThrow(new DuplicateKeyException("Link inserted concurrently"))
+				.thenReturn(List.of());
+
+		assertEquals("Contact added to Address Book", addressBookService.addExistingContact("1", "7"));
+		verify(contactRepository, times(2)).linkExistingToAddressBook(1L, List.of(7L));
+	}
+
+	@Test
+	void addExistingContact_persistentConflict_givesUpAfterMaxRetries() {
+		when(contactRepository.linkExistingToAddressBook(1L, List.of(7L)))
+				.thenThrow(new OptimisticLockingFailureException("Address Book was updated concurrently"));
+
+		assertThrows(OptimisticLockingFailureException.class, () -> addressBookService.addExistingContact("1", "7"));
+		verify(contactRepository, times((int) RetryOnConflict.MAX_RETRIES + 1)).linkExistingToAddressBook(1L, List.of(7L));
+	}
+
+	@Test
+	void addExistingContact_conflictInCallerTransaction_isNotRetried() {
+		when(contactRepository.linkExistingToAddressBook(1L, List.of(7L)))
+				.thenThrow(new OptimisticLockingFailureException("Address Book was updated concurrently"));
+
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			assertThrows(OptimisticLockingFailureException.class, () -> addressBookService.addExistingContact("1", "7"));
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+		}
+		verify(contactRepository, times(1)).linkExistingToAddressBook(1L, List.of(7L));
+	}
+
+	@Test
+	void addExistingContact_otherFailure_isNotRetried() {
+		when(contactRepository.linkExistingToAddressBook(1L, List.of(7L)))
+				.thenThrow(new DataIntegrityViolationException("Contact was deleted"));
+
+		assertThrows(DataIntegrityViolationException.class, () -> addressBookService.addExistingContact("1", "7"));
+		verify(contactRepository, times(1)).linkExistingToAddressBook(1L, List.of(7L));
+	}
+}
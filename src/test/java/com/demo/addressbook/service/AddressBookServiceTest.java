@@ -3,11 +3,18 @@ package com.demo.addressbook.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,14 +23,25 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.BeanUtils;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import com.demo.addressbook.dto.ContactDto;
+import com.demo.addressbook.dto.ContactImportResult;
+import com.demo.addressbook.dto.ContactImportResult.RowFailure;
 import com.demo.addressbook.entity.AddressBook;
 import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.entity.ContactChange;
 import com.demo.addressbook.exception.InputValidationException;
 import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactChangeRepository;
 import com.demo.addressbook.repository.ContactRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
 class AddressBookServiceTest {
 
 	@Mock
@@ -32,12 +50,19 @@ class AddressBookServiceTest {
 	@Mock
 	ContactRepository contactRepository;
 
+	@Mock
+	ContactChangeRepository changeRepository;
+
+	SimpleMeterRegistry meterRegistry;
+
 	AddressBookService addressBookService;
 
 	@BeforeEach
 	void setup() {
 		MockitoAnnotations.openMocks(this);
-		addressBookService = new AddressBookService(addressBookRepository, contactRepository);
+		meterRegistry = new SimpleMeterRegistry();
+		addressBookService = new AddressBookService(addressBookRepository, contactRepository, changeRepository,
+				Validation.buildDefaultValidatorFactory().getValidator(), meterRegistry);
 	}
 
 	@Test
@@ -48,15 +73,35 @@ class AddressBookServiceTest {
 	@Test
 	void addAddressBook_validName_succeeds() {
 		AddressBook saved = new AddressBook("MyBook");
-		when(addressBookRepository.save(any())).thenReturn(saved);
+		when(addressBookRepository.saveAndFlush(any())).thenReturn(saved);
 
 		AddressBook result = addressBookService.addAddressBook("MyBook");
 		assertEquals("MyBook", result.getName());
 	}
 
+	@Test
+	void addAddressBook_duplicateNameDifferentCase_throws() {
+		when(addressBookRepository.existsByNormalizedName("mybook")).thenReturn(true);
+
+		assertThrows(DataIntegrityViolationException.class, () -> addressBookService.addAddressBook(" MYBOOK "));
+		verify(addressBookRepository, never()).findAll();
+	}
+
+	@Test
+	void rejections_areCountedByEntity() {
+		when(addressBookRepository.existsByNormalizedName("mybook")).thenReturn(true);
+		assertThrows(DataIntegrityViolationException.class, () -> addressBookService.addAddressBook("MyBook"));
+		assertThrows(InputValidationException.class, () -> addressBookService.findContactsByAddressBookId("1", 0, 10));
+		assertThrows(InputValidationException.class, () -> addressBookService.addExistingContact("1", "2"));
+
+		assertEquals(1, meterRegistry.get("addressbook.duplicate.rejections").tag("entity", "addressBook").counter().count());
+		assertEquals(1, meterRegistry.get("addressbook.not.found").tag("entity", "addressBook").counter().count());
+		assertEquals(1, meterRegistry.get("addressbook.not.found").tag("entity", "contact").counter().count());
+	}
+
 	@Test
 	void findAllContacts_missingAddressBook_throws() {
-		when(addressBookRepository.findById(1L)).thenReturn(Optional.empty());
+		when(addressBookRepository.findWithContactsByAddressBookId(1L)).thenReturn(Optional.empty());
 		assertThrows(InputValidationException.class, () -> addressBookService.findAllContactsByAddressBookId("1"));
 	}
 
@@ -65,7 +110,7 @@ class AddressBookServiceTest {
 		AddressBook ab = new AddressBook("B");
 		Contact c = new Contact("A", "B", "123456789");
 		ab.getContacts().add(c);
-		when(addressBookRepository.findById(1L)).thenReturn(Optional.of(ab));
+		when(addressBookRepository.findWithContactsByAddressBookId(1L)).thenReturn(Optional.of(ab));
 
 		Set<Contact> set = addressBookService.findAllContactsByAddressBookId("1");
 		assertEquals(1, set.size());
@@ -84,38 +129,73 @@ class AddressBookServiceTest {
 //        Contact contact = new Contact();
 //        BeanUtils.copyProperties(dto, contact);
 		when(addressBookRepository.findById(any())).thenReturn(Optional.empty());
-		when(contactRepository.findAll()).thenReturn(Collections.emptyList());
+		when(contactRepository.existsByFirstNameAndLastName("A", "B")).thenReturn(false);
 		assertThrows(InputValidationException.class, () -> addressBookService.addContact("100", dto));
 	}
 
+	@Test
+	void addContact_insertsContactAndLinkWithoutLoadingAddressBook() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.saveAllInBatches(any())).thenReturn(List.of(9L));
+
+		assertEquals("Contact added to Address Book",
+				addressBookService.addContact("1", new ContactDto(null, "Adam", "Gilchrist", null, null, "+61 345 678 901")));
+		verify(contactRepository).linkToAddressBook(1L, List.of(9L));
+		verify(changeRepository).record(ContactChange.Type.CREATED, null, List.of(9L));
+		verify(changeRepository).record(ContactChange.Type.LINKED, 1L, List.of(9L));
+		verify(addressBookRepository, never()).findById(any());
+		verify(addressBookRepository, never()).save(any());
+	}
+
 	@Test
 	void addContact_duplicate_throwsDataIntegrityViolation() {
-		// make contactRepository return an existing contact with same first/last name
-		Contact existing = new Contact("Jane", "Smith", "987654321");
-		when(contactRepository.findAll()).thenReturn(java.util.List.of(existing));
+		// make contactRepository report an existing contact with same first/last name
+		when(contactRepository.existsByFirstNameAndLastName("Jane", "Smith")).thenReturn(true);
+		when(contactRepository.findAddressBookNamesByContactName("Jane", "Smith")).thenReturn(List.of("AB"));
 
 		ContactDto dto = new ContactDto(null, "Jane", "Smith", "Org", "jane@x.com", "987654321");
 		// even if address book exists, service checks duplicate first
 		when(addressBookRepository.findById(1L)).thenReturn(Optional.of(new AddressBook("AB")));
 
-		assertThrows(DataIntegrityViolationException.class, () -> addressBookService.addContact("1", dto));
+		DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class,
+				() -> addressBookService.addContact("1", dto));
+		assertEquals("Contact with same First Name and Last Name already exists in Address Book: AB", ex.getMessage());
+		verify(contactRepository, never()).findAll();
 	}
 
 	@Test
-	void addExistingContact_success_returnsMessage() {
-		Contact existing = new Contact("A", "B", "123");
-		when(contactRepository.findById(2L)).thenReturn(Optional.of(existing));
-		AddressBook ab = new AddressBook("AB");
-		when(addressBookRepository.findById(1L)).thenReturn(Optional.of(ab));
-		when(addressBookRepository.save(any())).thenReturn(ab);
+	void addExistingContact_success_insertsLinkWithoutLoadingAddressBook() {
+		when(contactRepository.existsById(2L)).thenReturn(true);
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.linkExistingToAddressBook(1L, List.of(2L))).thenReturn(List.of(2L));
 
 		String res = addressBookService.addExistingContact("1", "2");
 		assertEquals("Contact added to Address Book", res);
+		verify(contactRepository).linkExistingToAddressBook(1L, List.of(2L));
+		verify(changeRepository).record(ContactChange.Type.LINKED, 1L, List.of(2L));
+		verify(addressBookRepository, never()).findById(any());
+		verify(addressBookRepository, never()).save(any());
+	}
+
+	@Test
+	void addExistingContact_addressBookNotFound_throws() {
+		when(contactRepository.existsById(2L)).thenReturn(true);
+		assertThrows(InputValidationException.class, () -> addressBookService.addExistingContact("1", "2"));
+		verify(contactRepository, never()).linkExistingToAddressBook(any(), any());
+	}
+
+	@Test
+	void addExistingContacts_linksDistinctIdsInOneCall() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.linkExistingToAddressBook(eq(1L), any())).thenReturn(List.of(7L, 8L));
+
+		assertEquals(2, addressBookService.addExistingContacts("1", Arrays.asList(7L, 8L, 7L, null)));
+		verify(contactRepository).linkExistingToAddressBook(1L, Set.of(7L, 8L));
 	}
 
 	@Test
 	void addExistingContact_contactNotFound_throws() {
-		when(contactRepository.findById(2L)).thenReturn(Optional.empty());
+		when(contactRepository.existsById(2L)).thenReturn(false);
 		assertThrows(InputValidationException.class, () -> addressBookService.addExistingContact("1", "2"));
 	}
 
@@ -132,6 +212,154 @@ class AddressBookServiceTest {
 		assertThrows(InputValidationException.class, () -> addressBookService.removeContactByAddressBookId("1", dto));
 	}
 
+	@Test
+	void removeContact_deletesJoinRowAndOrphanWithoutLoadingAddressBook() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.unlinkFromAddressBook(1L, List.of(7L))).thenReturn(List.of(7L));
+		when(contactRepository.deleteOrphans(List.of(7L))).thenReturn(List.of(7L));
+
+		assertEquals("Successfully removed contact from Address Book",
+				addressBookService.removeContactByAddressBookId("1", new ContactDto(7L, null, null, null, null, null)));
+		verify(contactRepository).deleteOrphans(List.of(7L));
+		verify(changeRepository).record(ContactChange.Type.UNLINKED, 1L, List.of(7L));
+		verify(changeRepository).record(ContactChange.Type.DELETED, null, List.of(7L));
+		verify(addressBookRepository, never()).findById(any());
+		verify(addressBookRepository, never()).save(any());
+	}
+
+	@Test
+	void removeContact_notInAddressBook_throws() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.unlinkFromAddressBook(1L, List.of(7L))).thenReturn(List.of());
+
+		assertThrows(InputValidationException.class,
+				() -> addressBookService.removeContactByAddressBookId("1", new ContactDto(7L, null, null, null, null, null)));
+		verify(contactRepository, never()).deleteOrphans(any());
+	}
+
+	@Test
+	void removeContacts_removesDistinctIdsInOneCall() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.unlinkFromAddressBook(eq(1L), any())).thenReturn(List.of(7L, 9L));
+
+		assertEquals(2, addressBookService.removeContactsByAddressBookId("1", Arrays.asList(7L, 8L, 7L, null, 9L)));
+		verify(contactRepository).unlinkFromAddressBook(1L, Set.of(7L, 8L, 9L));
+		verify(contactRepository).deleteOrphans(List.of(7L, 9L));
+	}
+
+	@Test
+	void removeContacts_emptyList_throws() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		assertThrows(InputValidationException.class, () -> addressBookService.removeContactsByAddressBookId("1", List.of()));
+	}
+
+	@Test
+	void exportContacts_streamsDtoProjectionOfAddressBook() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.streamByAddressBookIdAsDto(1L)).thenReturn(Stream.of(
+				new ContactDto(1L, "Jane", "Smith", null, null, "123"), new ContactDto(2L, "John", "Smith", null, null, "456")));
+		List<ContactDto> exported = new ArrayList<>();
+
+		assertEquals(2, addressBookService.exportContactsByAddressBookId("1", exported::add));
+		assertEquals(2L, exported.get(1).contactId());
+		verify(addressBookRepository, never()).findWithContactsByAddressBookId(any());
+	}
+
+	@Test
+	void findContactsPage_sortsByContactId() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.findPageByAddressBookId(eq(1L), any())).thenReturn(Page.empty());
+
+		addressBookService.findContactsByAddressBookId("1", 3, 50);
+		verify(contactRepository).findPageByAddressBookId(1L, PageRequest.of(3, 50, Sort.by("contactId")));
+	}
+
+	@Test
+	void findContactsPage_missingAddressBook_throws() {
+		when(addressBookRepository.existsById(1L)).thenReturn(false);
+		assertThrows(InputValidationException.class, () -> addressBookService.findContactsByAddressBookId("1", 0, 10));
+	}
+
+	@Test
+	void findContactsAfter_invalidSize_throws() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		assertThrows(InputValidationException.class, () -> addressBookService.findContactsByAddressBookIdAfter("1", 0, 0));
+		assertThrows(InputValidationException.class,
+				() -> addressBookService.findContactsByAddressBookIdAfter("1", 0, AddressBookService.MAX_PAGE_SIZE + 1));
+	}
+
+	@Test
+	void findContactsAfter_usesKeysetQuery() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.findByAddressBookIdAfterContactId(1L, 7L, Limit.of(20))).thenReturn(List.of());
+
+		assertEquals(0, addressBookService.findContactsByAddressBookIdAfter("1", 7L, 20).size());
+		verify(addressBookRepository, never()).findById(any());
+	}
+
+	@Test
+	void importContacts_reportsRowFailuresAndImportsTheRest() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.findByFirstNameInAndLastNameIn(any(), any()))
+				.thenReturn(List.of(new Contact("Shane", "Warne", "123456789"), new Contact("Shane", "Other", "123")));
+		when(contactRepository.saveAllInBatches(any())).thenReturn(List.of(10L, 11L));
+
+		List<ContactDto> rows = List.of(new ContactDto(null, "Jane", "Smith", null, null, "987654321"),
+				new ContactDto(null, "X", "Smith", null, null, "987654321"),
+				new ContactDto(null, "Jane", "Smith", null, null, "111111111"),
+				new ContactDto(null, "Shane", "Warne", null, null, "222222222"),
+				new ContactDto(null, "Adam", "Gilchrist", null, "not-an-email", "333333333"),
+				new ContactDto(null, "Shane", "Smith", null, null, "444444444"));
+
+		ContactImportResult result = addressBookService.importContacts("1", rows);
+		assertEquals(2, result.imported());
+		assertEquals(List.of(2, 3, 4, 5), result.failures().stream().map(RowFailure::row).toList());
+		assertEquals("Duplicate of row 1 in import", result.failures().get(1).reason());
+		verify(contactRepository).findByFirstNameInAndLastNameIn(any(), any());
+		verify(contactRepository).linkToAddressBook(1L, List.of(10L, 11L));
+		verify(contactRepository, never()).findAll();
+	}
+
+	@Test
+	void importContactsFromCsv_parsesHeaderAndQuotedFields() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.saveAllInBatches(any())).thenReturn(List.of(10L));
+
+		String csv = "contactNumber,firstName,lastName,orgName\n\"+61 123\",Jane,Smith,\"Acme, Inc\"\n";
+		ContactImportResult result = addressBookService.importContactsFromCsv("1", csv);
+		assertEquals(1, result.imported());
+		verify(contactRepository).saveAllInBatches(argThat(contacts -> contacts.size() == 1
+				&& "Acme, Inc".equals(contacts.get(0).getOrgName()) && "+61 123".equals(contacts.get(0).getContactNumber())));
+	}
+
+	@Test
+	void importContactsFromCsv_multiLineQuotedField_reportsSourceLines() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		when(contactRepository.saveAllInBatches(any())).thenReturn(List.of(10L, 11L));
+
+		// Line 2 has a quoted line break, line 4 is blank, line 6 opens a quote that is never closed
+		String csv = "firstName,lastName,orgName,contactNumber\r\n"
+				+ "Jane,Smith,\"Acme\r\nHead Office\",123456789\r\n"
+				+ "\r\n"
+				+ "X,Doe,,123456789\r\n"
+				+ "Mark,Taylor,,987654321\r\n"
+				+ "Ian,Healy,\"Broken,111111111\r\n";
+		ContactImportResult result = addressBookService.importContactsFromCsv("1", csv);
+
+		assertEquals(2, result.imported());
+		assertEquals(List.of(5, 7), result.failures().stream().map(RowFailure::row).toList());
+		assertEquals("Unterminated quoted field", result.failures().get(1).reason());
+		verify(contactRepository).saveAllInBatches(argThat(contacts -> contacts.size() == 2
+				&& "Acme\r\nHead Office".equals(contacts.get(0).getOrgName())));
+	}
+
+	@Test
+	void importContactsFromCsv_missingRequiredColumn_throws() {
+		when(addressBookRepository.existsById(1L)).thenReturn(true);
+		assertThrows(InputValidationException.class,
+				() -> addressBookService.importContactsFromCsv("1", "firstName,lastName\nJane,Smith"));
+	}
+
 	@Test
 	void findAllContacts_invalidIdString_throwsNumberFormat() {
 		assertThrows(NumberFormatException.class, () -> addressBookService.findAllContactsByAddressBookId("abc"));
@@ -1,30 +1,43 @@
 package com.demo.addressbook.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.demo.addressbook.dto.ContactDto;
 import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.exception.InputValidationException;
 import com.demo.addressbook.repository.ContactRepository;
+import com.demo.addressbook.search.ContactSearchIndex;
 
 class ContactServiceTest {
 
 	@Mock
 	ContactRepository contactRepository;
 
+	ContactSearchIndex searchIndex;
+
 	ContactService contactService;
 
 	@BeforeEach
 	void setup() {
 		MockitoAnnotations.openMocks(this);
-		contactService = new ContactService(contactRepository);
+		searchIndex = new ContactSearchIndex();
+		contactService = new ContactService(contactRepository, searchIndex);
 	}
 
 	@Test
@@ -41,4 +54,65 @@ class ContactServiceTest {
 		Set<Contact> result = contactService.getAllUniqueContacts();
 		assertEquals(1, result.size());
 	}
+
+	@Test
+	void exportAllContacts_passesEveryRowToConsumer() {
+		when(contactRepository.streamAllAsDto()).thenReturn(Stream.of(
+				new ContactDto(1L, "X", "Y", null, null, "123"), new ContactDto(2L, "Z", "W", null, null, "456")));
+		List<ContactDto> exported = new ArrayList<>();
+
+		long count = contactService.exportAllContacts(exported::add);
+		assertEquals(2, count);
+		assertEquals(2L, exported.get(1).contactId());
+		verify(contactRepository, never()).findAll();
+	}
+
+	@Test
+	void searchContacts_returnsContactsInIndexOrder() {
+		searchIndex.add(new ContactDto(1L, "Matthew", "Hayden", null, null, "123"));
+		searchIndex.add(new ContactDto(2L, "Matt", "Renshaw", null, null, "456"));
+		Contact hayden = mock(Contact.class);
+		when(hayden.getContactId()).thenReturn(1L);
+		Contact renshaw = mock(Contact.class);
+		when(renshaw.getContactId()).thenReturn(2L);
+		when(contactRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(hayden, renshaw));
+
+		assertEquals(List.of(renshaw, hayden), contactService.searchContacts("matt", false, 10));
+	}
+
+	@Test
+	void searchContacts_noMatch_skipsRepository() {
+		assertEquals(0, contactService.searchContacts("nobody", true, 10).size());
+		verify(contactRepository, never()).findAllById(any());
+	}
+
+	@Test
+	void searchContacts_invalidInput_throws() {
+		assertThrows(InputValidationException.class, () -> contactService.searchContacts(" ", false, 10));
+		assertThrows(InputValidationException.class,
+				() -> contactService.searchContacts("matt", false, ContactService.MAX_SEARCH_RESULTS + 1));
+	}
+
+	@Test
+	void rebuildSearchIndex_indexesExportedContacts() {
+		when(contactRepository.streamAllAsDto()).thenReturn(Stream.of(new ContactDto(1L, "Shane", "Warne", null, null, "567")));
+
+		contactService.rebuildSearchIndex();
+		assertEquals(List.of(1L), searchIndex.search("warne", false, 10));
+	}
+
+	@Test
+	void findContactsByNumber_looksUpNormalizedNumber() {
+		Contact c = new Contact("Shane", "Warne", "+61 567 890 123");
+		when(contactRepository.findByNormalizedContactNumberOrderByContactId("61567890123")).thenReturn(List.of(c));
+
+		assertEquals(List.of(c), contactService.findContactsByNumber("0061-567-890-123"));
+		assertEquals("61567890123", c.getNormalizedContactNumber());
+	}
+
+	@Test
+	void findContactsByNumber_noDigits_throws() {
+		assertThrows(InputValidationException.class, () -> contactService.findContactsByNumber("+ -"));
+		verify(contactRepository, never()).findByNormalizedContactNumberOrderByContactId(any());
+	}
 }
@@ -0,0 +1,159 @@
+package com.demo.addressbook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.demo.addressbook.dto.DataGenerationResult;
+import com.demo.addressbook.entity.AddressBook;
+import com.demo.addressbook.entity.Contact;
+import com.demo.addressbook.entity.ContactChange;
+import com.demo.addressbook.exception.InputValidationException;
+import com.demo.addressbook.repository.AddressBookRepository;
+import com.demo.addressbook.repository.ContactChangeRepository;
+import com.demo.addressbook.repository.ContactRepository;
+
+class InitialSetupServiceTest {
+
+	@Mock
+	AddressBookRepository addressBookRepository;
+
+	@Mock
+	ContactRepository contactRepository;
+
+	@Mock
+	ContactChangeRepository changeRepository;
+
+	@Mock
+	PlatformTransactionManager transactionManager;
+
+	InitialSetupService initialSetupService;
+
+	Map<Long, List<Long>> linkedContactIds = new HashMap<>();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setup() {
+		MockitoAnnotations.openMocks(this);
+		initialSetupService = new InitialSetupService(addressBookRepository, contactRepository, changeRepository,
+				transactionManager);
+		when(addressBookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<AddressBook> addressBooks = invocation.getArgument(0);
+			for (int i = 0; i < addressBooks.size(); i++) {
+				addressBooks.get(i).setAddressBookId(100L + i);
+			}
+			return addressBooks;
+		});
+		long[] nextContactId = { 1 };
+		when(contactRepository.saveAllInBatches(anyList())).thenAnswer(invocation -> {
+			List<Contact> contacts = invocation.getArgument(0);
+			return LongStream.range(nextContactId[0], nextContactId[0] += contacts.size()).boxed().toList();
+		});
+		doAnswer(invocation -> {
+			linkedContactIds.computeIfAbsent(invocation.getArgument(0), k -> new ArrayList<>())
+					.addAll((List<Long>) invocation.getArgument(1));
+			return null;
+		}).when(contactRepository).linkToAddressBook(anyLong(), anyList());
+	}
+
+	@Test
+	void generateAddressBookData_noOverlap_linksEachContactOnce() {
+		DataGenerationResult result = initialSetupService.generateAddressBookData(5, 25_000, 0, 42);
+
+		assertEquals(5, result.addressBooks());
+		assertEquals(25_000, result.contacts());
+		assertEquals(25_000, result.links());
+		Set<Long> linked = new HashSet<>();
+		linkedContactIds.values().forEach(linked::addAll);
+		assertEquals(25_000, linked.size());
+		verify(contactRepository, never()).findById(any());
+	}
+
+	@Test
+	void generateAddressBookData_commitsEachChunkSeparately() {
+		initialSetupService.generateAddressBookData(5, 25_000, 0, 42);
+
+		// One transaction for the address books, then one per chunk of GENERATION_CHUNK_SIZE contacts
+		verify(transactionManager, times(4)).commit(any());
+		verify(contactRepository, times(3)).saveAllInBatches(anyList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void generateAddressBookData_recordsCreatedAndLinkedChanges() {
+		Set<Long> created = new HashSet<>();
+		Map<Long, List<Long>> linkChanges = new HashMap<>();
+		doAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(2);
+			if (invocation.getArgument(0) == ContactChange.Type.CREATED) {
+				created.addAll(ids);
+			} else {
+				linkChanges.computeIfAbsent(invocation.getArgument(1), k -> new ArrayList<>()).addAll(ids);
+			}
+			return null;
+		}).when(changeRepository).record(any(), any(), any(Collection.class));
+
+		initialSetupService.generateAddressBookData(3, 25_000, 0.5, 42);
+
+		assertEquals(25_000, created.size());
+		assertEquals(linkedContactIds, linkChanges);
+		// One CREATED batch per chunk
+		verify(changeRepository, times(3)).record(eq(ContactChange.Type.CREATED), isNull(), anyList());
+	}
+
+	@Test
+	void generateAddressBookData_overlap_linksContactsToDistinctBooks() {
+		DataGenerationResult result = initialSetupService.generateAddressBookData(3, 1000, 0.9, 42);
+
+		long links = linkedContactIds.values().stream().mapToLong(List::size).sum();
+		assertEquals(result.links(), links);
+		// Roughly 1 + 0.9 + 0.81 memberships per contact, capped at the number of books
+		assertEquals(2.71, links / 1000.0, 0.15);
+		for (List<Long> ids : linkedContactIds.values()) {
+			assertEquals(ids.size(), new HashSet<>(ids).size());
+		}
+	}
+
+	@Test
+	void generateAddressBookData_sameSeed_sameDistribution() {
+		initialSetupService.generateAddressBookData(4, 500, 0.3, 7);
+		Map<Long, List<Long>> first = new HashMap<>(linkedContactIds);
+		linkedContactIds.clear();
+		initialSetupService.generateAddressBookData(4, 500, 0.3, 7);
+
+		assertEquals(first.keySet(), linkedContactIds.keySet());
+		first.forEach((book, ids) -> assertEquals(ids.size(), linkedContactIds.get(book).size()));
+	}
+
+	@Test
+	void generateAddressBookData_invalidParameters_throw() {
+		assertThrows(InputValidationException.class, () -> initialSetupService.generateAddressBookData(0, 10, 0, 1));
+		assertThrows(InputValidationException.class, () -> initialSetupService.generateAddressBookData(1, -1, 0, 1));
+		assertThrows(InputValidationException.class, () -> initialSetupService.generateAddressBookData(1, 10, 1, 1));
+		verify(addressBookRepository, never()).saveAll(anyList());
+	}
+}